@@ -6,6 +6,12 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.function.Consumer;
 
 /**
@@ -103,4 +109,63 @@ public class JFiles {
     public static boolean removeContents(@NotNull File directory, boolean recursive) {
         return removeContents(directory, recursive, null);
     }
+
+	/*
+	 - Atomic writing
+	 */
+
+    /**
+     * {@link FunctionalInterface Functional interface} used by {@link #writeAtomically(File, boolean, ChannelWriter)}
+     * to write the contents of a file.
+     *
+     * @since JSky 1.0.0
+     */
+    @FunctionalInterface
+    public interface ChannelWriter {
+
+        /**
+         * Writes the contents of the file to the provided {@code channel}. The {@code channel} must not be closed.
+         *
+         * @param channel The {@link FileChannel} to write to.
+         *
+         * @throws IOException If an I/O error occurs.
+         * @since JSky 1.0.0
+         */
+        void write(@NotNull FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Writes a {@link File} atomically, so that a crash while writing never leaves the {@code file} partially written.
+     * Contents are first written to a sibling temporary file, named as the {@code file} plus <i>".tmp"</i>, which then
+     * replaces the {@code file} with an {@link StandardCopyOption#ATOMIC_MOVE atomic move}. If the file system doesn't
+     * support atomic moves, a regular move is used instead. Any necessary parent directory is created.
+     *
+     * @param file The {@link File} to write.
+     * @param sync Whether to {@link FileChannel#force(boolean) force} the contents to be written to the storage device
+     * before replacing the {@code file}. Without it, saving is faster but recent writes may be lost if the system
+     * crashes, though the {@code file} itself won't be corrupted on most file systems.
+     * @param writer The {@link ChannelWriter} that writes the contents of the {@code file}.
+     *
+     * @throws IOException If an I/O error occurs. The {@code file} is left untouched in that case.
+     * @since JSky 1.0.0
+     */
+    public static void writeAtomically(@NotNull File file, boolean sync, @NotNull ChannelWriter writer) throws IOException {
+        final Path target = file.toPath().toAbsolutePath();
+        final Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.createDirectories(target.getParent());
+        try {
+            try (final FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writer.write(channel);
+                if (sync)
+                    channel.force(true);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
 }
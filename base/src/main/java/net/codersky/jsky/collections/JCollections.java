@@ -168,6 +168,70 @@ public class JCollections {
         return list;
     }
 
+	/*
+	 - Array creation - Primitives
+	 */
+
+    public static byte @NotNull [] toByteArray(@NotNull Collection<Byte> collection) {
+        if (collection instanceof PrimitiveList.OfByte lst)
+            return lst.toByteArray();
+        final byte[] arr = new byte[collection.size()];
+        int i = 0;
+        for (Byte element : collection)
+            arr[i++] = element;
+        return arr;
+    }
+
+    public static short @NotNull [] toShortArray(@NotNull Collection<Short> collection) {
+        if (collection instanceof PrimitiveList.OfShort lst)
+            return lst.toShortArray();
+        final short[] arr = new short[collection.size()];
+        int i = 0;
+        for (Short element : collection)
+            arr[i++] = element;
+        return arr;
+    }
+
+    public static int @NotNull [] toIntArray(@NotNull Collection<Integer> collection) {
+        if (collection instanceof PrimitiveList.OfInt lst)
+            return lst.toIntArray();
+        final int[] arr = new int[collection.size()];
+        int i = 0;
+        for (Integer element : collection)
+            arr[i++] = element;
+        return arr;
+    }
+
+    public static long @NotNull [] toLongArray(@NotNull Collection<Long> collection) {
+        if (collection instanceof PrimitiveList.OfLong lst)
+            return lst.toLongArray();
+        final long[] arr = new long[collection.size()];
+        int i = 0;
+        for (Long element : collection)
+            arr[i++] = element;
+        return arr;
+    }
+
+    public static float @NotNull [] toFloatArray(@NotNull Collection<Float> collection) {
+        if (collection instanceof PrimitiveList.OfFloat lst)
+            return lst.toFloatArray();
+        final float[] arr = new float[collection.size()];
+        int i = 0;
+        for (Float element : collection)
+            arr[i++] = element;
+        return arr;
+    }
+
+    public static double @NotNull [] toDoubleArray(@NotNull Collection<Double> collection) {
+        if (collection instanceof PrimitiveList.OfDouble lst)
+            return lst.toDoubleArray();
+        final double[] arr = new double[collection.size()];
+        int i = 0;
+        for (Double element : collection)
+            arr[i++] = element;
+        return arr;
+    }
+
 	/*
 	 - Set creation - HashSet
 	 */
@@ -0,0 +1,458 @@
+package net.codersky.jsky.collections;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable, fixed-size {@link List} backed by an array of primitives. Compared to a {@link List} of boxed
+ * elements, a {@link PrimitiveList} only stores the array itself, so no object is created per element until elements
+ * are accessed through the {@link List} interface. Type-specific methods such as {@link OfInt#getInt(int)} or
+ * {@link OfInt#toIntArray()} can be used to read elements without boxing them, and {@link OfInt#asBuffer()} can be used
+ * to read them without boxing or copying them.
+ * <p>
+ * Instances are created with any of the {@code of} methods, which copy the provided array, so modifying said array
+ * won't modify the {@link PrimitiveList}. The {@code wrap} methods can be used instead to avoid copying arrays that
+ * are not going to be modified.
+ *
+ * @param <E> The boxed type of the elements of the list.
+ *
+ * @author xDec0de_
+ * @since JSky 1.0.0
+ */
+public abstract class PrimitiveList<E> extends AbstractList<E> implements RandomAccess {
+
+    private PrimitiveList() {
+    }
+
+	/*
+	 - Creation
+	 */
+
+    @NotNull
+    public static OfByte of(byte @NotNull ... values) {
+        return new OfByte(values.clone());
+    }
+
+    @NotNull
+    public static OfShort of(short @NotNull ... values) {
+        return new OfShort(values.clone());
+    }
+
+    @NotNull
+    public static OfInt of(int @NotNull ... values) {
+        return new OfInt(values.clone());
+    }
+
+    @NotNull
+    public static OfLong of(long @NotNull ... values) {
+        return new OfLong(values.clone());
+    }
+
+    @NotNull
+    public static OfFloat of(float @NotNull ... values) {
+        return new OfFloat(values.clone());
+    }
+
+    @NotNull
+    public static OfDouble of(double @NotNull ... values) {
+        return new OfDouble(values.clone());
+    }
+
+	/*
+	 - Creation - Without copying
+	 */
+
+    // NOTE: These methods WON'T clone the provided array, so avoid modifying it after creating the list.
+
+    @NotNull
+    public static OfByte wrap(byte @NotNull [] values) {
+        return new OfByte(values);
+    }
+
+    @NotNull
+    public static OfShort wrap(short @NotNull [] values) {
+        return new OfShort(values);
+    }
+
+    @NotNull
+    public static OfInt wrap(int @NotNull [] values) {
+        return new OfInt(values);
+    }
+
+    @NotNull
+    public static OfLong wrap(long @NotNull [] values) {
+        return new OfLong(values);
+    }
+
+    @NotNull
+    public static OfFloat wrap(float @NotNull [] values) {
+        return new OfFloat(values);
+    }
+
+    @NotNull
+    public static OfDouble wrap(double @NotNull [] values) {
+        return new OfDouble(values);
+    }
+
+	/*
+	 - Implementations
+	 */
+
+    /**
+     * {@link PrimitiveList} backed by a {@code byte} array.
+     *
+     * @since JSky 1.0.0
+     */
+    public static final class OfByte extends PrimitiveList<Byte> {
+
+        private final byte[] values;
+
+        private OfByte(byte @NotNull [] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @NotNull
+        @Override
+        public Byte get(int index) {
+            return values[index];
+        }
+
+        public byte getByte(int index) {
+            return values[index];
+        }
+
+        /**
+         * Gets a copy of the array that backs this {@link PrimitiveList}.
+         *
+         * @return A copy of the array that backs this {@link PrimitiveList}.
+         *
+         * @since JSky 1.0.0
+         */
+        public byte @NotNull [] toByteArray() {
+            return values.clone();
+        }
+
+        /**
+         * Gets a read-only {@link ByteBuffer} view of the array that backs this {@link PrimitiveList}. Unlike
+         * {@link #toByteArray()}, no copy is made, so this is the cheapest way to read every element.
+         *
+         * @return A read-only {@link ByteBuffer} view of this {@link PrimitiveList}.
+         *
+         * @since JSky 1.0.0
+         */
+        @NotNull
+        public ByteBuffer asBuffer() {
+            return ByteBuffer.wrap(values).asReadOnlyBuffer();
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    /**
+     * {@link PrimitiveList} backed by a {@code short} array.
+     *
+     * @since JSky 1.0.0
+     */
+    public static final class OfShort extends PrimitiveList<Short> {
+
+        private final short[] values;
+
+        private OfShort(short @NotNull [] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @NotNull
+        @Override
+        public Short get(int index) {
+            return values[index];
+        }
+
+        public short getShort(int index) {
+            return values[index];
+        }
+
+        /**
+         * Gets a copy of the array that backs this {@link PrimitiveList}.
+         *
+         * @return A copy of the array that backs this {@link PrimitiveList}.
+         *
+         * @since JSky 1.0.0
+         */
+        public short @NotNull [] toShortArray() {
+            return values.clone();
+        }
+
+        /**
+         * Gets a read-only {@link ShortBuffer} view of the array that backs this {@link PrimitiveList}. Unlike
+         * {@link #toShortArray()}, no copy is made, so this is the cheapest way to read every element.
+         *
+         * @return A read-only {@link ShortBuffer} view of this {@link PrimitiveList}.
+         *
+         * @since JSky 1.0.0
+         */
+        @NotNull
+        public ShortBuffer asBuffer() {
+            return ShortBuffer.wrap(values).asReadOnlyBuffer();
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    /**
+     * {@link PrimitiveList} backed by an {@code int} array.
+     *
+     * @since JSky 1.0.0
+     */
+    public static final class OfInt extends PrimitiveList<Integer> {
+
+        private final int[] values;
+
+        private OfInt(int @NotNull [] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @NotNull
+        @Override
+        public Integer get(int index) {
+            return values[index];
+        }
+
+        public int getInt(int index) {
+            return values[index];
+        }
+
+        /**
+         * Gets a copy of the array that backs this {@link PrimitiveList}.
+         *
+         * @return A copy of the array that backs this {@link PrimitiveList}.
+         *
+         * @since JSky 1.0.0
+         */
+        public int @NotNull [] toIntArray() {
+            return values.clone();
+        }
+
+        /**
+         * Gets a read-only {@link IntBuffer} view of the array that backs this {@link PrimitiveList}. Unlike
+         * {@link #toIntArray()}, no copy is made, so this is the cheapest way to read every element.
+         *
+         * @return A read-only {@link IntBuffer} view of this {@link PrimitiveList}.
+         *
+         * @since JSky 1.0.0
+         */
+        @NotNull
+        public IntBuffer asBuffer() {
+            return IntBuffer.wrap(values).asReadOnlyBuffer();
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    /**
+     * {@link PrimitiveList} backed by a {@code long} array.
+     *
+     * @since JSky 1.0.0
+     */
+    public static final class OfLong extends PrimitiveList<Long> {
+
+        private final long[] values;
+
+        private OfLong(long @NotNull [] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @NotNull
+        @Override
+        public Long get(int index) {
+            return values[index];
+        }
+
+        public long getLong(int index) {
+            return values[index];
+        }
+
+        /**
+         * Gets a copy of the array that backs this {@link PrimitiveList}.
+         *
+         * @return A copy of the array that backs this {@link PrimitiveList}.
+         *
+         * @since JSky 1.0.0
+         */
+        public long @NotNull [] toLongArray() {
+            return values.clone();
+        }
+
+        /**
+         * Gets a read-only {@link LongBuffer} view of the array that backs this {@link PrimitiveList}. Unlike
+         * {@link #toLongArray()}, no copy is made, so this is the cheapest way to read every element.
+         *
+         * @return A read-only {@link LongBuffer} view of this {@link PrimitiveList}.
+         *
+         * @since JSky 1.0.0
+         */
+        @NotNull
+        public LongBuffer asBuffer() {
+            return LongBuffer.wrap(values).asReadOnlyBuffer();
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    /**
+     * {@link PrimitiveList} backed by a {@code float} array.
+     *
+     * @since JSky 1.0.0
+     */
+    public static final class OfFloat extends PrimitiveList<Float> {
+
+        private final float[] values;
+
+        private OfFloat(float @NotNull [] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @NotNull
+        @Override
+        public Float get(int index) {
+            return values[index];
+        }
+
+        public float getFloat(int index) {
+            return values[index];
+        }
+
+        /**
+         * Gets a copy of the array that backs this {@link PrimitiveList}.
+         *
+         * @return A copy of the array that backs this {@link PrimitiveList}.
+         *
+         * @since JSky 1.0.0
+         */
+        public float @NotNull [] toFloatArray() {
+            return values.clone();
+        }
+
+        /**
+         * Gets a read-only {@link FloatBuffer} view of the array that backs this {@link PrimitiveList}. Unlike
+         * {@link #toFloatArray()}, no copy is made, so this is the cheapest way to read every element.
+         *
+         * @return A read-only {@link FloatBuffer} view of this {@link PrimitiveList}.
+         *
+         * @since JSky 1.0.0
+         */
+        @NotNull
+        public FloatBuffer asBuffer() {
+            return FloatBuffer.wrap(values).asReadOnlyBuffer();
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    /**
+     * {@link PrimitiveList} backed by a {@code double} array.
+     *
+     * @since JSky 1.0.0
+     */
+    public static final class OfDouble extends PrimitiveList<Double> {
+
+        private final double[] values;
+
+        private OfDouble(double @NotNull [] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @NotNull
+        @Override
+        public Double get(int index) {
+            return values[index];
+        }
+
+        public double getDouble(int index) {
+            return values[index];
+        }
+
+        /**
+         * Gets a copy of the array that backs this {@link PrimitiveList}.
+         *
+         * @return A copy of the array that backs this {@link PrimitiveList}.
+         *
+         * @since JSky 1.0.0
+         */
+        public double @NotNull [] toDoubleArray() {
+            return values.clone();
+        }
+
+        /**
+         * Gets a read-only {@link DoubleBuffer} view of the array that backs this {@link PrimitiveList}. Unlike
+         * {@link #toDoubleArray()}, no copy is made, so this is the cheapest way to read every element.
+         *
+         * @return A read-only {@link DoubleBuffer} view of this {@link PrimitiveList}.
+         *
+         * @since JSky 1.0.0
+         */
+        @NotNull
+        public DoubleBuffer asBuffer() {
+            return DoubleBuffer.wrap(values).asReadOnlyBuffer();
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+}
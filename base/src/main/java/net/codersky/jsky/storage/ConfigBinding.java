@@ -0,0 +1,261 @@
+package net.codersky.jsky.storage;
+
+import net.codersky.jsky.Reloadable;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.List;
+
+/**
+ * Binds the contents of a {@link DataProvider} to a {@link Record}, so values that are read very often can be accessed
+ * as plain record fields instead of looking them up on every access. The record is {@link #get() created} once and
+ * then only {@link #refresh() refreshed} when requested, usually after the {@link DataProvider} is
+ * {@link #reload() reloaded}. Refreshing replaces the record atomically, so readers always see either the previous
+ * record or the new one, never a mix of both.
+ * <p>
+ * Every component of the record is bound to the key with its name, or the key provided by its {@link Key} annotation.
+ * Components can be of any type supported by the {@link DataProvider}, including primitives, {@link List lists} and
+ * other records, whose components are bound to keys nested under the key of the component. Values that are missing or
+ * of a different type are bound as {@code null}, or as the default value of primitive components, such as {@code 0}
+ * or {@code false}. Here is an example:
+ * <pre>
+ * public record ServerConfig(String motd, &#64;ConfigBinding.Key("max-players") int maxPlayers, Limits limits) {}
+ * public record Limits(int chunks, List&lt;String&gt; worlds) {}
+ *
+ * ConfigBinding&lt;ServerConfig&gt; config = ConfigBinding.of(storage, ServerConfig.class);
+ * int chunks = config.get().limits().chunks(); // Bound to "limits.chunks"
+ * </pre>
+ * The structure of the record is inspected once when the {@link ConfigBinding} is created, so refreshing it only reads
+ * the bound keys and invokes the record constructor. Keep in mind that changes made to the {@link DataProvider} are
+ * not visible on the record until it is {@link #refresh() refreshed}.
+ *
+ * @param <T> The type of {@link Record} that is bound.
+ *
+ * @author xDec0de_
+ * @since JSky 1.0.0
+ */
+public final class ConfigBinding<T extends Record> implements Reloadable {
+
+    private final DataProvider provider;
+    private final Class<T> type;
+    private final Binder binder;
+    private volatile T value;
+
+    private ConfigBinding(@NotNull DataProvider provider, @NotNull Class<T> type) {
+        this.provider = provider;
+        this.type = type;
+        this.binder = new Binder(type, "");
+        this.value = type.cast(binder.bind(provider.getMap()));
+    }
+
+    /**
+     * Binds the provided {@link DataProvider} to a new instance of the provided {@link Record} {@code type}, which is
+     * immediately created with the current contents of {@code provider}. See {@link ConfigBinding} for details.
+     *
+     * @param provider The {@link DataProvider} to read values from.
+     * @param type The type of {@link Record} to bind.
+     *
+     * @return A new {@link ConfigBinding}.
+     *
+     * @param <T> The type of {@link Record} to bind.
+     *
+     * @throws IllegalArgumentException If {@code type} has a component that can't be bound, such as a {@link List}
+     * with no element type, or if its constructor isn't accessible.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public static <T extends Record> ConfigBinding<T> of(@NotNull DataProvider provider, @NotNull Class<T> type) {
+        return new ConfigBinding<>(provider, type);
+    }
+
+    /**
+     * Gets the current instance of the bound {@link Record}, which is only replaced when this {@link ConfigBinding} is
+     * {@link #refresh() refreshed}.
+     *
+     * @return The current instance of the bound {@link Record}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public T get() {
+        return value;
+    }
+
+    @NotNull
+    public Class<T> getType() {
+        return type;
+    }
+
+    @NotNull
+    public DataProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Creates a new instance of the bound {@link Record} with the current contents of the {@link DataProvider},
+     * replacing the {@link #get() current} one. Useful after modifying the {@link DataProvider}.
+     *
+     * @return The new instance of the bound {@link Record}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public T refresh() {
+        final T refreshed = type.cast(binder.bind(provider.getMap()));
+        this.value = refreshed;
+        return refreshed;
+    }
+
+    /**
+     * {@link Reloadable#reload() Reloads} the {@link DataProvider} if it's {@link Reloadable}, such as any
+     * {@link Storage}, and then {@link #refresh() refreshes} this {@link ConfigBinding}. The bound {@link Record} isn't
+     * refreshed if the {@link DataProvider} fails to reload. This allows a {@link ConfigBinding} to be used anywhere
+     * a {@link Reloadable} is accepted, for example, to be {@link StorageWatcher#watch(java.io.File, Reloadable)
+     * watched} so it is refreshed whenever its file changes.
+     *
+     * @return {@code true} if the {@link DataProvider} was reloaded and this {@link ConfigBinding} refreshed,
+     * {@code false} otherwise.
+     *
+     * @since JSky 1.0.0
+     */
+    @Override
+    public boolean reload() {
+        if (provider instanceof Reloadable reloadable && !reloadable.reload())
+            return false;
+        refresh();
+        return true;
+    }
+
+	/*
+	 - Binding
+	 */
+
+    /**
+     * Sets the key that a {@link Record} component is bound to by a {@link ConfigBinding}, which is the name of the
+     * component by default. Keys of components on nested records are relative to the key of their parent component.
+     *
+     * @author xDec0de_
+     * @since JSky 1.0.0
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.RECORD_COMPONENT)
+    public @interface Key {
+
+        /**
+         * The key that the annotated component is bound to.
+         *
+         * @return The key that the annotated component is bound to.
+         */
+        @NotNull
+        String value();
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        Object read(@NotNull DataMap map);
+    }
+
+    // Creates records of a single type, nested records get their own Binder.
+    private static final class Binder {
+
+        private final Class<?> type;
+        /** The canonical constructor, taking an Object[] with every component and returning an Object. */
+        private final MethodHandle constructor;
+        private final Reader[] readers;
+
+        private Binder(@NotNull Class<?> type, @NotNull String prefix) {
+            final RecordComponent[] components = type.getRecordComponents();
+            final Class<?>[] types = new Class<?>[components.length];
+            this.type = type;
+            this.readers = new Reader[components.length];
+            for (int i = 0; i < components.length; i++) {
+                types[i] = components[i].getType();
+                readers[i] = reader(components[i], prefix);
+            }
+            try {
+                final Constructor<?> canonical = type.getDeclaredConstructor(types);
+                canonical.trySetAccessible();
+                this.constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+                        .asSpreader(Object[].class, components.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot access the constructor of " + type.getName(), e);
+            }
+        }
+
+        @NotNull
+        private Object bind(@NotNull DataMap map) {
+            final Object[] args = new Object[readers.length];
+            for (int i = 0; i < readers.length; i++)
+                args[i] = readers[i].read(map);
+            try {
+                return (Object) constructor.invokeExact(args);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to create an instance of " + type.getName(), e);
+            }
+        }
+
+        @NotNull
+        private static Reader reader(@NotNull RecordComponent component, @NotNull String prefix) {
+            final Key key = component.getAnnotation(Key.class);
+            final String name = prefix + (key == null ? component.getName() : key.value());
+            final Class<?> type = component.getType();
+            if (type.isRecord()) {
+                final Binder nested = new Binder(type, name + '.');
+                return nested::bind;
+            }
+            final KeyPath path = KeyPath.of(name);
+            if (type == List.class) {
+                final Class<?> element = getElementType(component.getGenericType(), name);
+                return map -> map.getList(path, element);
+            }
+            if (type.isPrimitive()) {
+                final Class<?> boxed = MethodType.methodType(type).wrap().returnType();
+                final Object def = defaultValue(type);
+                return map -> {
+                    final Object obj = map.get(path, boxed);
+                    return obj == null ? def : obj;
+                };
+            }
+            return map -> map.get(path, type);
+        }
+
+        @NotNull
+        private static Class<?> getElementType(@NotNull Type list, @NotNull String key) {
+            if (list instanceof ParameterizedType parameterized) {
+                Type element = parameterized.getActualTypeArguments()[0];
+                if (element instanceof WildcardType wildcard)
+                    element = wildcard.getUpperBounds()[0];
+                if (element instanceof Class<?> elementClass)
+                    return elementClass;
+                if (element instanceof ParameterizedType raw && raw.getRawType() instanceof Class<?> rawClass)
+                    return rawClass;
+            }
+            throw new IllegalArgumentException("Cannot find the element type of the list bound to \"" + key + "\"");
+        }
+
+        @NotNull
+        private static Object defaultValue(@NotNull Class<?> primitive) {
+            try {
+                return MethodHandles.zero(primitive).invoke();
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
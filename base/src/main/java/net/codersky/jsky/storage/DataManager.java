@@ -1,6 +1,6 @@
 package net.codersky.jsky.storage;
 
-import net.codersky.jsky.collections.JCollections;
+import net.codersky.jsky.collections.PrimitiveList;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Date;
@@ -88,7 +88,7 @@ public abstract class DataManager extends DataProvider {
 
     @NotNull
     public List<Byte> setBytes(@NotNull String key, byte[] value) {
-        return setBytes(key, JCollections.asByteList(value));
+        return getMap().setList(key, PrimitiveList.of(value));
     }
 
 	/*
@@ -106,7 +106,7 @@ public abstract class DataManager extends DataProvider {
 
     @NotNull
     public List<Short> setShorts(@NotNull String key, short[] value) {
-        return setShorts(key, JCollections.asShortList(value));
+        return getMap().setList(key, PrimitiveList.of(value));
     }
 
     /*
@@ -123,7 +123,7 @@ public abstract class DataManager extends DataProvider {
 
     @NotNull
     public List<Integer> setInts(@NotNull String key, int[] value) {
-        return setInts(key, JCollections.asIntList(value));
+        return getMap().setList(key, PrimitiveList.of(value));
     }
 
 	/*
@@ -141,7 +141,7 @@ public abstract class DataManager extends DataProvider {
 
     @NotNull
     public List<Long> setLongs(@NotNull String key, long[] value) {
-        return setLongs(key, JCollections.asLongList(value));
+        return getMap().setList(key, PrimitiveList.of(value));
     }
 
 	/*
@@ -158,8 +158,19 @@ public abstract class DataManager extends DataProvider {
     }
 
     @NotNull
+    public List<Float> setFloats(@NotNull String key, float[] value) {
+        return getMap().setList(key, PrimitiveList.of(value));
+    }
+
+    /**
+     * Misnamed version of {@link #setFloats(String, float[])}.
+     *
+     * @deprecated Use {@link #setFloats(String, float[])} instead.
+     */
+    @NotNull
+    @Deprecated
     public List<Float> setShorts(@NotNull String key, float[] value) {
-        return setFloats(key, JCollections.asFloatList(value));
+        return setFloats(key, value);
     }
 
 	/*
@@ -177,7 +188,7 @@ public abstract class DataManager extends DataProvider {
 
     @NotNull
     public List<Double> setDoubles(@NotNull String key, double[] value) {
-        return setDoubles(key, JCollections.asDoubleList(value));
+        return getMap().setList(key, PrimitiveList.of(value));
     }
 
 	/*
@@ -206,7 +217,11 @@ public abstract class DataManager extends DataProvider {
 
     @NotNull
     public List<Date> setDates(@NotNull String key, @NotNull List<Date> value) {
-        setLongs(key, JCollections.map(value, date -> date.toInstant().toEpochMilli()));
+        final long[] millis = new long[value.size()];
+        int i = 0;
+        for (Date date : value)
+            millis[i++] = date.toInstant().toEpochMilli();
+        setLongs(key, millis);
         return value;
     }
 }
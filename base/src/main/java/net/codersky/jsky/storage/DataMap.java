@@ -1,39 +1,117 @@
 package net.codersky.jsky.storage;
 
-import net.codersky.jsky.collections.JCollections;
+import net.codersky.jsky.collections.PrimitiveList;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * The internal map used by every {@link DataProvider} to store its data, supporting optional key nesting.
+ * <p>
+ * A {@link DataMap} can be created on {@link #DataMap(boolean, boolean) concurrent} mode, designed for data that is
+ * read from many threads and written rarely. On this mode, every write creates a new version of the map that is then
+ * published atomically, so readers never lock and always see a consistent snapshot of the data, while writers are
+ * serialized. Writes are more expensive as they need to copy the top level map and any nested map that they modify.
+ *
+ * @author xDec0de_
+ * @since JSky 1.0.0
+ */
 public class DataMap {
 
-    private boolean isModified = false;
+    private volatile boolean isModified = false;
     private final boolean useNesting;
-    private final LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+    private final boolean concurrent;
+    /** Current version of the map. On concurrent mode, published versions are never modified. */
+    private volatile LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+
+    /** Keys changed since the last {@link #pollChanges()}, {@code null} if changes aren't tracked. */
+    private Set<String> changes = null;
+
+    /** Must be a power of two. */
+    private static final int PATH_CACHE_SIZE = 1024;
+    /**
+     * Recently used keys, already split, so nested lookups don't need to split them again. Direct-mapped by hash, so
+     * every key always uses the same slot and can only be evicted by a key that collides with it. {@code null} if
+     * nesting isn't used, as keys are never split then.
+     */
+    private final KeyPath[] paths;
 
     public DataMap(boolean useNesting) {
+        this(useNesting, false);
+    }
+
+    /**
+     * Creates a new {@link DataMap}.
+     *
+     * @param useNesting Whether to use key nesting or not. See {@link DataProvider#supportsKeyNesting()}.
+     * @param concurrent Whether to use concurrent mode or not. On concurrent mode, reads never lock and see a
+     * consistent snapshot of the data while writes copy the modified maps and publish them atomically. Maps and
+     * {@link Set Sets} returned by this {@link DataMap} are also unmodifiable on this mode.
+     *
+     * @see #isConcurrent()
+     * @since JSky 1.0.0
+     */
+    public DataMap(boolean useNesting, boolean concurrent) {
         this.useNesting = useNesting;
+        this.concurrent = concurrent;
+        this.paths = useNesting ? new KeyPath[PATH_CACHE_SIZE] : null;
     }
 
+    /**
+     * Gets the internal map of this {@link DataMap}. On {@link #isConcurrent() concurrent} mode, this is the current
+     * snapshot of the map, which must not be modified, use {@link #getSnapshot()} instead whenever possible.
+     *
+     * @return The internal map of this {@link DataMap}.
+     *
+     * @since JSky 1.0.0
+     */
     @NotNull
     @ApiStatus.Internal
     public HashMap<String, Object> getInternalMap() {
         return map;
     }
 
+    /**
+     * Gets an unmodifiable view of the current contents of this {@link DataMap}. On {@link #isConcurrent() concurrent}
+     * mode, the view is an immutable snapshot that won't reflect further changes, so it can be safely read, for
+     * example to save it, while other threads write to this {@link DataMap}. Nested maps must not be modified.
+     *
+     * @return An unmodifiable view of the contents of this {@link DataMap}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public Map<String, Object> getSnapshot() {
+        return Collections.unmodifiableMap(map);
+    }
+
     public boolean usesNesting() {
         return useNesting;
     }
 
+    /**
+     * Checks whether this {@link DataMap} uses concurrent mode or not.
+     *
+     * @return {@code true} if this {@link DataMap} uses concurrent mode, {@code false} otherwise.
+     *
+     * @see #DataMap(boolean, boolean)
+     * @since JSky 1.0.0
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
     /**
      * Checks whether this {@link DataMap} has been modified and thus its content may require to be saved or not.
      * <p>
@@ -53,8 +131,8 @@ public class DataMap {
      * Sets the modification status of this {@link DataMap}. This is generally set to {@code false} by any class that
      * relies on a {@link DataMap} saves it. {@link DataMap} will already set the modification status to {@code true}
      * whenever {@link #set(String, Object)} or {@link #setList(String, List)} are successfully called and actually
-     * modifies the map, though it is not checked if the previously stored object is the exact same as the new one for
-     * performance reasons.
+     * modify the map, that is, when the new value isn't {@link Object#equals(Object) equal} to the stored one, so
+     * setting the same values again won't cause unnecessary saves.
      *
      * @param modified the new modification status.
      *
@@ -69,30 +147,133 @@ public class DataMap {
         return this;
     }
 
+    /**
+     * Enables or disables per-key change tracking. While enabled, the keys of every entry that is set or removed are
+     * recorded until they are {@link #pollChanges() polled}, allowing storages to save only the entries that changed.
+     * Entries removed through the {@link Set Sets} returned by {@link #getKeys()} or {@link #getEntries()} are not
+     * tracked.
+     *
+     * @param track Whether to track changes or not. Disabling tracking discards any recorded change.
+     *
+     * @return This {@link DataMap}.
+     *
+     * @see #pollChanges()
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public synchronized DataMap trackChanges(boolean track) {
+        if (!track)
+            changes = null;
+        else if (changes == null)
+            changes = new LinkedHashSet<>();
+        return this;
+    }
+
+    /**
+     * Gets the keys that have been set or removed since the last call to this method, clearing them. Keys are the
+     * full keys used to modify the map, so on {@link #usesNesting() nested} maps, keys may be nested. If
+     * {@link #trackChanges(boolean) change tracking} isn't enabled, an empty {@link Set} is returned.
+     *
+     * @return The keys that have been changed since the last call to this method, in order of first change.
+     *
+     * @see #trackChanges(boolean)
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public synchronized Set<String> pollChanges() {
+        if (changes == null || changes.isEmpty())
+            return Set.of();
+        final Set<String> polled = changes;
+        changes = new LinkedHashSet<>();
+        return polled;
+    }
+
+    /**
+     * Gets the keys that have been set or removed since the last time changes were {@link #pollChanges() polled},
+     * without clearing them. This can be used to check which entries changed, for example, to decide whether a save
+     * is needed or not. If {@link #trackChanges(boolean) change tracking} isn't enabled, an empty {@link Set} is
+     * returned.
+     *
+     * @return An unmodifiable copy of the keys that have been changed, in order of first change.
+     *
+     * @see #pollChanges()
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public synchronized Set<String> getDirtyKeys() {
+        if (changes == null || changes.isEmpty())
+            return Set.of();
+        return Collections.unmodifiableSet(new LinkedHashSet<>(changes));
+    }
+
+    // On concurrent mode, this is always called while holding the lock of this DataMap.
+    private void recordChange(@NotNull String key) {
+        final Set<String> changes = this.changes;
+        if (changes != null)
+            changes.add(key);
+    }
+
+    /*
+     * Writing
+     */
+
+    // On concurrent mode, writers work on a copy of the current version and then publish it.
+    private <R> R write(@NotNull Function<LinkedHashMap<String, Object>, R> action) {
+        if (!concurrent)
+            return action.apply(map);
+        synchronized (this) {
+            final LinkedHashMap<String, Object> copy = new LinkedHashMap<>(map);
+            final R result = action.apply(copy);
+            map = copy;
+            return result;
+        }
+    }
+
     /*
      * Nesting utilities
      */
 
-    private String getActualKey(@NotNull String key) {
-        final int lastSeparator = useNesting ? key.lastIndexOf('.') : -1;
-        return lastSeparator == -1 ? key : key.substring(lastSeparator + 1);
+    // Only used on nested maps, maps without nesting use String keys directly.
+    @NotNull
+    private KeyPath getCachedPath(@NotNull String key) {
+        final int hash = key.hashCode();
+        final int slot = (hash ^ (hash >>> 16)) & (PATH_CACHE_SIZE - 1);
+        // KeyPaths are immutable, so they are safely published even without synchronization.
+        KeyPath path = paths[slot];
+        if (path == null || !path.getKey().equals(key)) {
+            path = KeyPath.of(key);
+            paths[slot] = path;
+        }
+        return path;
+    }
+
+    private String getActualKey(@NotNull KeyPath path) {
+        return useNesting ? path.getLast() : path.getKey();
     }
 
-    private Map<String, Object> getActualMap(@NotNull String key, boolean create) {
-        final int lastSeparator = useNesting ? key.lastIndexOf('.') : -1;
-        return lastSeparator == -1 ? this.map : getNestedMap(key.substring(0, lastSeparator), create);
+    private Map<String, Object> getActualMap(@NotNull Map<String, Object> root, @NotNull KeyPath path, boolean create, boolean write) {
+        return !useNesting || path.size() == 1 ? root : getNestedMap(root, path, path.size() - 1, create, write);
     }
 
+    /*
+     * Gets the map of the first parts of a path. When writing on concurrent mode, every nested map on the path is
+     * replaced by a copy so published versions are never modified.
+     */
     @Nullable
     @SuppressWarnings("unchecked")
-    private Map<String, Object> getNestedMap(@NotNull String key, boolean create) {
-        final String[] keys = key.split("\\.");
-        Map<String, Object> last = this.map;
-        for (String subKey : keys) {
+    private Map<String, Object> getNestedMap(@NotNull Map<String, Object> root, @NotNull KeyPath path, int parts, boolean create, boolean write) {
+        Map<String, Object> last = root;
+        for (int i = 0; i < parts; i++) {
+            final String subKey = path.get(i);
             final Object value = last.get(subKey);
-            if (value instanceof Map<?, ?> subMap)
-                last = (Map<String, Object>) subMap;
-            else if (create) {
+            if (value instanceof Map<?, ?> subMap) {
+                if (write && concurrent) {
+                    final Map<String, Object> copy = new LinkedHashMap<>((Map<String, Object>) subMap);
+                    last.put(subKey, copy);
+                    last = copy;
+                } else
+                    last = (Map<String, Object>) subMap;
+            } else if (create) {
                 final Map<String, Object> created = new LinkedHashMap<>();
                 last.put(subKey, created);
                 last = created;
@@ -102,47 +283,116 @@ public class DataMap {
         return last;
     }
 
+    @Nullable
+    private Map<String, Object> getNestedMap(@NotNull String key) {
+        final KeyPath path = getCachedPath(key);
+        return getNestedMap(map, path, path.size(), false, false);
+    }
+
     /*
      * Map access
      */
 
     @NotNull
     public DataMap clear() {
-        this.map.clear();
+        return setContents(Map.of());
+    }
+
+    /**
+     * Replaces the whole content of this {@link DataMap} with the provided {@code contents}. On
+     * {@link #isConcurrent() concurrent} mode, the new contents are published atomically, so readers either see the
+     * old contents or the new ones. The modification status is not changed.
+     *
+     * @param contents The new contents. Nested maps are used as is, so they must not be modified afterwards.
+     *
+     * @return This {@link DataMap}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public DataMap setContents(@NotNull Map<String, ?> contents) {
+        if (changes != null) {
+            synchronized (this) {
+                map.keySet().forEach(this::recordChange);
+                contents.keySet().forEach(this::recordChange);
+            }
+        }
+        if (concurrent) {
+            final LinkedHashMap<String, Object> copy = new LinkedHashMap<>(contents);
+            synchronized (this) {
+                map = copy;
+            }
+        } else {
+            map.clear();
+            map.putAll(contents);
+        }
+        return this;
+    }
+
+    /**
+     * Sets all the provided {@code entries} on a single write, as if {@link #set(String, Object)} was called for every
+     * one of them. On {@link #isConcurrent() concurrent} mode, all entries are published atomically.
+     *
+     * @param entries The entries to set.
+     *
+     * @return This {@link DataMap}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public DataMap setAll(@NotNull Map<String, ?> entries) {
+        if (entries.isEmpty())
+            return this;
+        write(root -> {
+            for (Map.Entry<String, ?> entry : entries.entrySet()) {
+                final String key = entry.getKey();
+                if (useNesting)
+                    put(root, getCachedPath(key), entry.getValue());
+                else
+                    put(root, key, key, entry.getValue());
+            }
+            return null;
+        });
         return this;
     }
 
     @NotNull
     public Set<Map.Entry<String, Object>> getEntries() {
-        return this.map.entrySet();
+        return concurrent ? Collections.unmodifiableMap(map).entrySet() : map.entrySet();
     }
 
     @NotNull
     public Set<Map.Entry<String, Object>> getEntries(@NotNull String key) {
-        final Map<String, Object> source = getNestedMap(key, false);
-        return source == null ? Set.of() : source.entrySet();
+        final Map<String, Object> source = getNestedMap(key);
+        if (source == null)
+            return Set.of();
+        return concurrent ? Collections.unmodifiableMap(source).entrySet() : source.entrySet();
     }
 
     @NotNull
     public DataMap removeEntries(@NotNull String... keys) {
-        for (String key : keys) {
-            if (useNesting) {
-                final Map<String, Object> source = getActualMap(key, false);
-                if (source != null)
-                    source.remove(getActualKey(key));
-            } else
-                this.map.remove(key);
-        }
+        write(root -> {
+            for (String key : keys) {
+                final KeyPath path = useNesting ? getCachedPath(key) : null;
+                final Map<String, Object> source = path == null ? root : getActualMap(root, path, false, true);
+                final String actualKey = path == null ? key : path.getLast();
+                if (source != null && source.containsKey(actualKey)) {
+                    source.remove(actualKey);
+                    isModified = true;
+                    recordChange(key);
+                }
+            }
+            return null;
+        });
         return this;
     }
 
     public boolean containsKeys(@NotNull String... keys) {
+        final LinkedHashMap<String, Object> root = map;
         for (String key : keys) {
-            if (useNesting) {
-                final Map<String, Object> source = getActualMap(key, false);
-                if (source == null)
-                    return false;
-            } else if (!this.map.containsKey(key))
+            final KeyPath path = useNesting ? getCachedPath(key) : null;
+            final Map<String, Object> source = path == null ? root : getActualMap(root, path, false, false);
+            if (source == null || !source.containsKey(path == null ? key : path.getLast()))
                 return false;
         }
         return true;
@@ -150,13 +400,15 @@ public class DataMap {
 
     @NotNull
     public Set<String> getKeys() {
-        return this.map.keySet();
+        return concurrent ? Collections.unmodifiableSet(map.keySet()) : map.keySet();
     }
 
     @NotNull
     public Set<String> getKeys(@NotNull String parent) {
-        final Map<String, Object> source = getNestedMap(parent, false);
-        return source == null ? Set.of() : source.keySet();
+        final Map<String, Object> source = getNestedMap(parent);
+        if (source == null)
+            return Set.of();
+        return concurrent ? Collections.unmodifiableSet(source.keySet()) : source.keySet();
     }
 
     /*
@@ -168,8 +420,13 @@ public class DataMap {
     @Nullable
     @SuppressWarnings("unchecked")
     private <T> T getFromMap(@NotNull Map<?, ?> source, @NotNull String key, @NotNull Class<T> type) {
-        final Object obj = source.get(key);
-        return obj != null && type.isAssignableFrom(obj.getClass()) ? (T) obj : null;
+        Object obj = source.get(key);
+        if (obj instanceof LazyValue lazy)
+            obj = lazy.resolve();
+        // Untyped and exact matches, the most common ones, skip the type check.
+        if (obj == null || type == Object.class || obj.getClass() == type)
+            return (T) obj;
+        return type.isInstance(obj) ? (T) obj : null;
     }
 
     // - Objects - //
@@ -181,43 +438,216 @@ public class DataMap {
 
     @Nullable
     public <T> T get(@NotNull String key, @NotNull Class<T> type) {
-        final String actualKey = getActualKey(key);
-        final Map<String, Object> source = getActualMap(key, false);
-        return source == null ? null : getFromMap(source, actualKey, type);
+        // Keys are never split without nesting, so no KeyPath is needed.
+        return useNesting ? get(getCachedPath(key), type) : getFromMap(map, key, type);
     }
 
     @NotNull
-    @SuppressWarnings("unchecked")
     public <T> T get(@NotNull String key, T def) {
-        final Object value = get(key, def.getClass());
-        return value == null ? def : (T) value;
+        return orDefault(get(key), def);
     }
 
-    // - Lists - //
+    @Nullable
+    public Object get(@NotNull KeyPath path) {
+        return get(path, Object.class);
+    }
 
     @Nullable
+    public <T> T get(@NotNull KeyPath path, @NotNull Class<T> type) {
+        final Map<String, Object> source = getActualMap(map, path, false, false);
+        return source == null ? null : getFromMap(source, getActualKey(path), type);
+    }
+
+    @NotNull
     @SuppressWarnings("unchecked")
+    public <T> T get(@NotNull KeyPath path, T def) {
+        return orDefault(get(path), def);
+    }
+
+    @NotNull
+    @SuppressWarnings("unchecked")
+    private static <T> T orDefault(@Nullable Object value, @NotNull T def) {
+        return value != null && (value.getClass() == def.getClass() || def.getClass().isInstance(value)) ? (T) value : def;
+    }
+
+    // - Typed values - //
+
+    /*
+     * Typed getters read the value once and check its type with instanceof, which is cheaper than checking it
+     * against a Class. Subclasses only need to override get(String, Class) and get(KeyPath, Class), which these
+     * getters call as untyped.
+     */
+
+    @Nullable
+    public String getString(@NotNull String key) {
+        return get(key) instanceof String str ? str : null;
+    }
+
+    @Nullable
+    public String getString(@NotNull KeyPath path) {
+        return get(path) instanceof String str ? str : null;
+    }
+
+    @Nullable
+    public Character getChar(@NotNull String key) {
+        return get(key) instanceof Character ch ? ch : null;
+    }
+
+    @Nullable
+    public Character getChar(@NotNull KeyPath path) {
+        return get(path) instanceof Character ch ? ch : null;
+    }
+
+    @Nullable
+    public Boolean getBoolean(@NotNull String key) {
+        return get(key) instanceof Boolean bool ? bool : null;
+    }
+
+    @Nullable
+    public Boolean getBoolean(@NotNull KeyPath path) {
+        return get(path) instanceof Boolean bool ? bool : null;
+    }
+
+    @Nullable
+    public Byte getByte(@NotNull String key) {
+        return get(key) instanceof Byte b ? b : null;
+    }
+
+    @Nullable
+    public Byte getByte(@NotNull KeyPath path) {
+        return get(path) instanceof Byte b ? b : null;
+    }
+
+    @Nullable
+    public Short getShort(@NotNull String key) {
+        return get(key) instanceof Short s ? s : null;
+    }
+
+    @Nullable
+    public Short getShort(@NotNull KeyPath path) {
+        return get(path) instanceof Short s ? s : null;
+    }
+
+    @Nullable
+    public Integer getInt(@NotNull String key) {
+        return get(key) instanceof Integer i ? i : null;
+    }
+
+    @Nullable
+    public Integer getInt(@NotNull KeyPath path) {
+        return get(path) instanceof Integer i ? i : null;
+    }
+
+    @Nullable
+    public Long getLong(@NotNull String key) {
+        return get(key) instanceof Long l ? l : null;
+    }
+
+    @Nullable
+    public Long getLong(@NotNull KeyPath path) {
+        return get(path) instanceof Long l ? l : null;
+    }
+
+    @Nullable
+    public Float getFloat(@NotNull String key) {
+        return get(key) instanceof Float f ? f : null;
+    }
+
+    @Nullable
+    public Float getFloat(@NotNull KeyPath path) {
+        return get(path) instanceof Float f ? f : null;
+    }
+
+    @Nullable
+    public Double getDouble(@NotNull String key) {
+        return get(key) instanceof Double d ? d : null;
+    }
+
+    @Nullable
+    public Double getDouble(@NotNull KeyPath path) {
+        return get(path) instanceof Double d ? d : null;
+    }
+
+    @Nullable
+    public UUID getUUID(@NotNull String key) {
+        return get(key) instanceof UUID uuid ? uuid : null;
+    }
+
+    @Nullable
+    public UUID getUUID(@NotNull KeyPath path) {
+        return get(path) instanceof UUID uuid ? uuid : null;
+    }
+
+    // - Lists - //
+
+    @Nullable
     public List<Object> getList(@NotNull String key) {
-        return get(key, List.class);
+        return asList(get(key));
     }
 
     @Nullable
-    @SuppressWarnings("unchecked")
     public <T> List<T> getList(@NotNull String key, @NotNull Class<T> type) {
-        final List<Object> lst = getList(key);
-        if (lst == null)
-            return null;
-        if (lst.isEmpty())
-            return new ArrayList<>(0);
-        return lst.getFirst().getClass().equals(type) ? (List<T>) JCollections.asArrayList(lst) : null;
+        return asList(get(key), type);
     }
 
     @NotNull
     @SuppressWarnings("unchecked")
     public <T> List<T> getList(@NotNull String key, @NotNull List<T> def) {
-        final Class<T> type = (Class<T>) def.getClass().getTypeParameters()[0].getClass();
-        final List<T> lst = getList(key, type);
-        return lst == null ? def : lst;
+        final List<Object> lst = getList(key);
+        // Generic types are erased, so the type of the elements of def is the only reference available.
+        if (lst == null || lst.isEmpty() || def.isEmpty())
+            return lst == null ? def : (List<T>) lst;
+        return lst.getFirst().getClass() == def.getFirst().getClass() ? (List<T>) lst : def;
+    }
+
+    /**
+     * Gets a {@link List} stored on this {@link DataMap}. The returned {@link List} is an unmodifiable view of the
+     * stored one, so no copy is made. Use {@link #setList(KeyPath, List)} to modify it.
+     *
+     * @param path The {@link KeyPath} of the {@link List} to get.
+     *
+     * @return An unmodifiable view of the stored {@link List}, or {@code null} if {@code path} didn't exist or
+     * contains a different type of value.
+     *
+     * @since JSky 1.0.0
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public List<Object> getList(@NotNull KeyPath path) {
+        return asList(get(path));
+    }
+
+    /**
+     * Gets a {@link List} of the specified {@code type} stored on this {@link DataMap}. The returned {@link List} is
+     * an unmodifiable view of the stored one, so no copy is made. Use {@link #setList(KeyPath, List)} to modify it.
+     *
+     * @param path The {@link KeyPath} of the {@link List} to get.
+     * @param type The type of the elements of the {@link List}.
+     *
+     * @return An unmodifiable view of the stored {@link List}, or {@code null} if {@code path} didn't exist or
+     * contains a different type of value.
+     *
+     * @since JSky 1.0.0
+     */
+    @Nullable
+    public <T> List<T> getList(@NotNull KeyPath path, @NotNull Class<T> type) {
+        return asList(get(path), type);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static List<Object> asList(@Nullable Object value) {
+        return value instanceof List<?> lst ? Collections.unmodifiableList((List<Object>) lst) : null;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> asList(@Nullable Object value, @NotNull Class<T> type) {
+        if (!(value instanceof List<?> lst))
+            return null;
+        if (lst.isEmpty())
+            return List.of();
+        return lst.getFirst().getClass() == type ? Collections.unmodifiableList((List<T>) lst) : null;
     }
 
     /*
@@ -226,71 +656,208 @@ public class DataMap {
 
     @NotNull
     public <T> T set(@NotNull String key, @NotNull T value) {
-        if (value instanceof List<?>) {
-            setList(key, (List<?>) value);
-            return value;
-        }
-        final String actualKey = getActualKey(key);
-        final Map<String, Object> source = getActualMap(key, true);
-        if (source != null) {
-            isModified = true;
-            source.put(actualKey, value);
-        }
+        if (useNesting)
+            return set(getCachedPath(key), value);
+        if (!concurrent || !isUnchanged(get(key), value))
+            write(root -> put(root, key, key, value));
         return value;
     }
 
     @NotNull
     public <T> List<T> setList(@NotNull String key, @NotNull List<T> value) {
-        final String actualKey = getActualKey(key);
-        final Map<String, Object> source = getActualMap(key, true);
-        if (source == null)
-            return value;
-        isModified = true;
-        if (value instanceof LinkedList<T> lst)
-            source.put(actualKey, lst);
-        else
-            source.put(actualKey, new LinkedList<>(value));
+        return set(key, value);
+    }
+
+    @NotNull
+    public <T> T set(@NotNull KeyPath path, @NotNull T value) {
+        // On concurrent mode, this avoids copying the map when nothing changes.
+        if (!concurrent || !isUnchanged(get(path), value))
+            write(root -> put(root, path, value));
         return value;
     }
 
+    @NotNull
+    public <T> List<T> setList(@NotNull KeyPath path, @NotNull List<T> value) {
+        return set(path, value);
+    }
+
+    private boolean put(@NotNull Map<String, Object> root, @NotNull KeyPath path, @Nullable Object value) {
+        final Map<String, Object> source = getActualMap(root, path, true, true);
+        return source != null && put(source, getActualKey(path), path.getKey(), value);
+    }
+
+    private boolean put(@NotNull Map<String, Object> source, @NotNull String actualKey, @NotNull String key, @Nullable Object value) {
+        // Lists are copied to ArrayLists for fast indexed access. ArrayLists are copied too, as callers may keep
+        // modifying them after setting them. PrimitiveLists are immutable, so they are kept as is.
+        final Object stored;
+        if (!(value instanceof List<?> lst) || value instanceof PrimitiveList<?>)
+            stored = value;
+        else
+            stored = new ArrayList<>(lst);
+        final Object previous = source.put(actualKey, stored);
+        if (!isUnchanged(previous, value)) {
+            isModified = true;
+            recordChange(key);
+        }
+        return true;
+    }
+
+    /*
+     * Setting a value equal to the previous one changes nothing. The same instance of a mutable value, such as a list
+     * obtained with get, may have been modified after being stored though, so it always counts as a change.
+     */
+    private static boolean isUnchanged(@Nullable Object previous, @Nullable Object value) {
+        if (previous == value)
+            return !(value instanceof Map<?, ?>) && (!(value instanceof List<?>) || value instanceof PrimitiveList<?>);
+        return previous != null && previous.equals(value);
+    }
+
 	/*
 	 - Updating
 	 */
 
-    private boolean isIgnored(String path, @Nullable List<String> ignored) {
-        if (ignored == null)
-            return false;
-        for (String ignoredPath : ignored)
-            if (path.startsWith(ignoredPath))
-                return true;
-        return false;
+    /**
+     * Updates this {@link DataMap} with the keys of {@code updatedMap}, as described on
+     * {@link #updateTree(Map, List)}.
+     *
+     * @param updatedMap The map to update this {@link DataMap} with.
+     * @param ignored The keys to ignore, if any. Ignored keys won't be added nor removed, and neither will any key
+     * nested under them.
+     *
+     * @return {@code true} if any key was added or removed, {@code false} otherwise.
+     *
+     * @since JSky 1.0.0
+     */
+    public boolean update(@NotNull HashMap<String, Object> updatedMap, @Nullable List<String> ignored) {
+        return !updateTree(updatedMap, ignored).isEmpty();
     }
 
-    public boolean update(@NotNull HashMap<String, Object> updatedMap, @Nullable List<String> ignored) {
-        int changes = 0;
-        final HashMap<String, Object> internalMap = getInternalMap();
-
-        // Add new keys
-        for (Map.Entry<String, Object> entry : updatedMap.entrySet()) {
-            if (!internalMap.containsKey(entry.getKey()) && !isIgnored(entry.getKey(), ignored)) {
-                internalMap.put(entry.getKey(), entry.getValue());
-                changes++;
-            }
+    public boolean update(@NotNull DataMap updatedMap, @Nullable List<String> ignored) {
+        return !updateTree(updatedMap.getSnapshot(), ignored).isEmpty();
+    }
+
+    /**
+     * Updates the structure of this {@link DataMap} to match the one of {@code updatedMap}, generally a newer version
+     * of the default contents of a storage, while keeping the values of this {@link DataMap}. Keys that only exist on
+     * {@code updatedMap} are added with their value, and keys that don't exist on {@code updatedMap} are removed.
+     * Values of keys that exist on both maps are never modified. If this {@link DataMap} {@link #usesNesting() uses
+     * nesting}, nested maps are updated recursively, so new nested keys are added even if their parent key already
+     * existed, and only the nested maps that change are modified.
+     * <p>
+     * The {@link #isModified() modification} status is set to {@code true} if any key is added or removed.
+     *
+     * @param updatedMap The map to update this {@link DataMap} with.
+     * @param ignored The keys to ignore, if any. Ignored keys won't be added nor removed, and neither will any key
+     * nested under them, so ignoring <i>"messages"</i> also ignores <i>"messages.welcome"</i>.
+     *
+     * @return The full keys that were added or removed, in the order that they were found. Keys nested under an added
+     * or removed key are not included.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public Set<String> updateTree(@NotNull Map<String, ?> updatedMap, @Nullable List<String> ignored) {
+        final IgnoredKeys ignoredKeys = IgnoredKeys.of(ignored);
+        final Set<String> changes = new LinkedHashSet<>();
+        write(root -> updateTree(root, updatedMap, ignoredKeys, "", changes, false));
+        if (!changes.isEmpty()) {
+            isModified = true;
+            changes.forEach(this::recordChange);
         }
+        return changes;
+    }
 
-        // Remove old keys. Iterator.remove avoids ConcurrentModificationException
-        final Iterator<Map.Entry<String, Object>> it = internalMap.entrySet().iterator();
-        while (it.hasNext()) {
-            final Map.Entry<String, Object> entry = it.next();
-            if (!updatedMap.containsKey(entry.getKey()) && !isIgnored(entry.getKey(), ignored)) {
-                it.remove();
-                changes++;
+    /*
+     * Returns the updated map, which is source itself unless copy is true and something changed. Copies are needed on
+     * concurrent mode, as published maps can't be modified, so only maps that change get copied.
+     */
+    @NotNull
+    private Map<String, Object> updateTree(@NotNull Map<String, Object> source, @NotNull Map<?, ?> updated,
+                                           @Nullable IgnoredKeys ignored, @NotNull String prefix,
+                                           @NotNull Set<String> changes, boolean copy) {
+        Map<String, Object> result = source;
+        for (Map.Entry<?, ?> entry : updated.entrySet()) {
+            final String key = String.valueOf(entry.getKey());
+            final IgnoredKeys nestedIgnored = ignored == null ? null : ignored.get(key);
+            if (nestedIgnored != null && nestedIgnored.ignored)
+                continue;
+            final Object current = source.get(key);
+            if (current == null && !source.containsKey(key)) {
+                result = copyIfNeeded(source, result, copy);
+                result.put(key, entry.getValue());
+                changes.add(prefix + key);
+            } else if (useNesting && current instanceof Map<?, ?> && entry.getValue() instanceof Map<?, ?> nested) {
+                @SuppressWarnings("unchecked")
+                final Map<String, Object> currentMap = (Map<String, Object>) current;
+                final Map<String, Object> merged = updateTree(currentMap, nested, nestedIgnored, prefix + key + '.', changes, concurrent);
+                if (merged != currentMap) {
+                    result = copyIfNeeded(source, result, copy);
+                    result.put(key, merged);
+                }
+            }
+        }
+        // Collected first, as result may be source itself.
+        List<String> removed = null;
+        for (String key : source.keySet()) {
+            if (updated.containsKey(key))
+                continue;
+            final IgnoredKeys nestedIgnored = ignored == null ? null : ignored.get(key);
+            if (nestedIgnored != null && nestedIgnored.ignored)
+                continue;
+            if (removed == null)
+                removed = new ArrayList<>();
+            removed.add(key);
+        }
+        if (removed != null) {
+            result = copyIfNeeded(source, result, copy);
+            for (String key : removed) {
+                result.remove(key);
+                changes.add(prefix + key);
             }
         }
-        return changes != 0;
+        return result;
     }
 
-    public boolean update(@NotNull DataMap updatedMap, @Nullable List<String> ignored) {
-        return update(updatedMap.getInternalMap(), ignored);
+    @NotNull
+    private Map<String, Object> copyIfNeeded(@NotNull Map<String, Object> source, @NotNull Map<String, Object> result, boolean copy) {
+        return copy && result == source ? new LinkedHashMap<>(source) : result;
+    }
+
+    /** Trie of ignored keys, split by the {@code '.'} character, used by {@link #updateTree(Map, List)}. */
+    private static final class IgnoredKeys {
+
+        private final Map<String, IgnoredKeys> children = new HashMap<>();
+        /** Whether this key, and thus every key nested under it, is ignored. */
+        private boolean ignored = false;
+
+        @Nullable
+        private static IgnoredKeys of(@Nullable List<String> keys) {
+            if (keys == null || keys.isEmpty())
+                return null;
+            final IgnoredKeys root = new IgnoredKeys();
+            for (String key : keys) {
+                final KeyPath path = KeyPath.of(key);
+                IgnoredKeys node = root;
+                for (int i = 0; i < path.size(); i++)
+                    node = node.children.computeIfAbsent(path.get(i), k -> new IgnoredKeys());
+                node.ignored = true;
+            }
+            return root;
+        }
+
+        // Keys may contain the separator if nesting isn't used, so every part of them is checked.
+        @Nullable
+        private IgnoredKeys get(@NotNull String key) {
+            if (key.indexOf('.') == -1)
+                return children.get(key);
+            final KeyPath path = KeyPath.of(key);
+            IgnoredKeys node = this;
+            for (int i = 0; i < path.size(); i++) {
+                node = node.children.get(path.get(i));
+                if (node == null || node.ignored)
+                    return node;
+            }
+            return node;
+        }
     }
 }
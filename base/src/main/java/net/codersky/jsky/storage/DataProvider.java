@@ -1,10 +1,17 @@
 package net.codersky.jsky.storage;
 
 import net.codersky.jsky.collections.JCollections;
+import net.codersky.jsky.collections.PrimitiveList;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -120,7 +127,7 @@ public abstract class DataProvider {
      */
     @Nullable
     public String getString(@NotNull String key) {
-        return getMap().get(key, String.class);
+        return getMap().getString(key);
     }
 
     @NotNull
@@ -129,6 +136,29 @@ public abstract class DataProvider {
         return str == null ? def : str;
     }
 
+    /**
+     * Gets a {@link String} from this {@link DataProvider} using a pre-split {@link KeyPath}, which avoids splitting
+     * the key on {@link #supportsKeyNesting() nested} storages.
+     *
+     * @param path the {@link KeyPath} to get the {@link String} from.
+     *
+     * @return The stored {@link String} or {@code null} if {@code path} didn't exist or contains a different type of
+     * value.
+     *
+     * @throws NullPointerException if {@code path} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    @Nullable
+    public String getString(@NotNull KeyPath path) {
+        return getMap().getString(path);
+    }
+
+    @NotNull
+    public String getString(@NotNull KeyPath path, @NotNull String def) {
+        final String str = getString(path);
+        return str == null ? def : str;
+    }
+
     @Nullable
     public List<String> getStrings(@NotNull String key) {
         return getMap().getList(key, String.class);
@@ -146,7 +176,7 @@ public abstract class DataProvider {
 
     @Nullable
     public Character getChar(@NotNull String key) {
-        return getMap().get(key, Character.class);
+        return getMap().getChar(key);
     }
 
     public char getChar(@NotNull String key, char def) {
@@ -154,6 +184,16 @@ public abstract class DataProvider {
         return ch == null ? def : ch;
     }
 
+    @Nullable
+    public Character getChar(@NotNull KeyPath path) {
+        return getMap().getChar(path);
+    }
+
+    public char getChar(@NotNull KeyPath path, char def) {
+        final Character ch = getChar(path);
+        return ch == null ? def : ch;
+    }
+
     @Nullable
     public List<Character> getChars(@NotNull String key) {
         return getMap().getList(key, Character.class);
@@ -171,7 +211,7 @@ public abstract class DataProvider {
 
     @Nullable
     public Boolean getBoolean(@NotNull String key) {
-        return getMap().get(key, Boolean.class);
+        return getMap().getBoolean(key);
     }
 
     public boolean getBoolean(@NotNull String key, boolean def) {
@@ -179,6 +219,16 @@ public abstract class DataProvider {
         return bool == null ? def : bool;
     }
 
+    @Nullable
+    public Boolean getBoolean(@NotNull KeyPath path) {
+        return getMap().getBoolean(path);
+    }
+
+    public boolean getBoolean(@NotNull KeyPath path, boolean def) {
+        final Boolean bool = getBoolean(path);
+        return bool == null ? def : bool;
+    }
+
     @Nullable
     public List<Boolean> getBooleans(@NotNull String key) {
         return getMap().getList(key, Boolean.class);
@@ -196,7 +246,7 @@ public abstract class DataProvider {
 
     @Nullable
     public Byte getByte(@NotNull String key) {
-        return getMap().get(key, Byte.class);
+        return getMap().getByte(key);
     }
 
     public byte getByte(@NotNull String key, byte def) {
@@ -204,6 +254,16 @@ public abstract class DataProvider {
         return b == null ? def : b;
     }
 
+    @Nullable
+    public Byte getByte(@NotNull KeyPath path) {
+        return getMap().getByte(path);
+    }
+
+    public byte getByte(@NotNull KeyPath path, byte def) {
+        final Byte b = getByte(path);
+        return b == null ? def : b;
+    }
+
     @Nullable
     public List<Byte> getBytes(@NotNull String key) {
         return getMap().getList(key, Byte.class);
@@ -215,13 +275,56 @@ public abstract class DataProvider {
         return lst == null ? def : lst;
     }
 
+    /**
+     * Gets a {@code byte} array from this {@link DataProvider}. Lists set from an array, such as with
+     * {@link DataManager#setBytes(String, byte[])}, are stored as a {@link PrimitiveList}, so this method can copy them
+     * without boxing any element. Other {@link Byte} lists are unboxed. Use {@link #getByteBuffer(String)} to
+     * read them without copying.
+     *
+     * @param key the key to get the {@code byte} array from.
+     *
+     * @return A new {@code byte} array with the stored values or {@code null} if {@code key} didn't exist or contains
+     * a different type of value.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    public byte @Nullable [] getByteArray(@NotNull String key) {
+        if (getMap().get(key) instanceof PrimitiveList.OfByte lst)
+            return lst.toByteArray();
+        final List<Byte> lst = getBytes(key);
+        return lst == null ? null : JCollections.toByteArray(lst);
+    }
+
+    /**
+     * Gets a read-only {@link ByteBuffer} from this {@link DataProvider}. Lists set from an array, such as with
+     * {@link DataManager#setBytes(String, byte[])}, are stored as a {@link PrimitiveList}, so the returned buffer is
+     * a view of the stored array and neither copies nor boxes any element. Other {@link Byte} lists are unboxed
+     * into a new array first.
+     *
+     * @param key the key to get the {@link ByteBuffer} from.
+     *
+     * @return A read-only {@link ByteBuffer} with the stored values or {@code null} if {@code key} didn't exist or
+     * contains a different type of value.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    @Nullable
+    public ByteBuffer getByteBuffer(@NotNull String key) {
+        if (getMap().get(key) instanceof PrimitiveList.OfByte lst)
+            return lst.asBuffer();
+        final byte[] arr = getByteArray(key);
+        return arr == null ? null : ByteBuffer.wrap(arr).asReadOnlyBuffer();
+    }
+
 	/*
 	 - Getters - Shorts
 	 */
 
     @Nullable
     public Short getShort(@NotNull String key) {
-        return getMap().get(key, Short.class);
+        return getMap().getShort(key);
     }
 
     public short getShort(@NotNull String key, short def) {
@@ -229,6 +332,16 @@ public abstract class DataProvider {
         return s == null ? def : s;
     }
 
+    @Nullable
+    public Short getShort(@NotNull KeyPath path) {
+        return getMap().getShort(path);
+    }
+
+    public short getShort(@NotNull KeyPath path, short def) {
+        final Short s = getShort(path);
+        return s == null ? def : s;
+    }
+
     @Nullable
     public List<Short> getShorts(@NotNull String key) {
         return getMap().getList(key, Short.class);
@@ -240,13 +353,56 @@ public abstract class DataProvider {
         return lst == null ? def : lst;
     }
 
+    /**
+     * Gets a {@code short} array from this {@link DataProvider}. Lists set from an array, such as with
+     * {@link DataManager#setShorts(String, short[])}, are stored as a {@link PrimitiveList}, so this method can copy them
+     * without boxing any element. Other {@link Short} lists are unboxed. Use {@link #getShortBuffer(String)} to
+     * read them without copying.
+     *
+     * @param key the key to get the {@code short} array from.
+     *
+     * @return A new {@code short} array with the stored values or {@code null} if {@code key} didn't exist or contains
+     * a different type of value.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    public short @Nullable [] getShortArray(@NotNull String key) {
+        if (getMap().get(key) instanceof PrimitiveList.OfShort lst)
+            return lst.toShortArray();
+        final List<Short> lst = getShorts(key);
+        return lst == null ? null : JCollections.toShortArray(lst);
+    }
+
+    /**
+     * Gets a read-only {@link ShortBuffer} from this {@link DataProvider}. Lists set from an array, such as with
+     * {@link DataManager#setShorts(String, short[])}, are stored as a {@link PrimitiveList}, so the returned buffer is
+     * a view of the stored array and neither copies nor boxes any element. Other {@link Short} lists are unboxed
+     * into a new array first.
+     *
+     * @param key the key to get the {@link ShortBuffer} from.
+     *
+     * @return A read-only {@link ShortBuffer} with the stored values or {@code null} if {@code key} didn't exist or
+     * contains a different type of value.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    @Nullable
+    public ShortBuffer getShortBuffer(@NotNull String key) {
+        if (getMap().get(key) instanceof PrimitiveList.OfShort lst)
+            return lst.asBuffer();
+        final short[] arr = getShortArray(key);
+        return arr == null ? null : ShortBuffer.wrap(arr).asReadOnlyBuffer();
+    }
+
 	/*
 	 - Getters - Integers
 	 */
 
     @Nullable
     public Integer getInt(@NotNull String key) {
-        return getMap().get(key, Integer.class);
+        return getMap().getInt(key);
     }
 
     public int getInt(@NotNull String key, int def) {
@@ -254,6 +410,16 @@ public abstract class DataProvider {
         return i == null ? def : i;
     }
 
+    @Nullable
+    public Integer getInt(@NotNull KeyPath path) {
+        return getMap().getInt(path);
+    }
+
+    public int getInt(@NotNull KeyPath path, int def) {
+        final Integer i = getInt(path);
+        return i == null ? def : i;
+    }
+
     @Nullable
     public List<Integer> getInts(@NotNull String key) {
         return getMap().getList(key, Integer.class);
@@ -265,13 +431,56 @@ public abstract class DataProvider {
         return lst == null ? def : lst;
     }
 
+    /**
+     * Gets a {@code int} array from this {@link DataProvider}. Lists set from an array, such as with
+     * {@link DataManager#setInts(String, int[])}, are stored as a {@link PrimitiveList}, so this method can copy them
+     * without boxing any element. Other {@link Integer} lists are unboxed. Use {@link #getIntBuffer(String)} to
+     * read them without copying.
+     *
+     * @param key the key to get the {@code int} array from.
+     *
+     * @return A new {@code int} array with the stored values or {@code null} if {@code key} didn't exist or contains
+     * a different type of value.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    public int @Nullable [] getIntArray(@NotNull String key) {
+        if (getMap().get(key) instanceof PrimitiveList.OfInt lst)
+            return lst.toIntArray();
+        final List<Integer> lst = getInts(key);
+        return lst == null ? null : JCollections.toIntArray(lst);
+    }
+
+    /**
+     * Gets a read-only {@link IntBuffer} from this {@link DataProvider}. Lists set from an array, such as with
+     * {@link DataManager#setInts(String, int[])}, are stored as a {@link PrimitiveList}, so the returned buffer is
+     * a view of the stored array and neither copies nor boxes any element. Other {@link Integer} lists are unboxed
+     * into a new array first.
+     *
+     * @param key the key to get the {@link IntBuffer} from.
+     *
+     * @return A read-only {@link IntBuffer} with the stored values or {@code null} if {@code key} didn't exist or
+     * contains a different type of value.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    @Nullable
+    public IntBuffer getIntBuffer(@NotNull String key) {
+        if (getMap().get(key) instanceof PrimitiveList.OfInt lst)
+            return lst.asBuffer();
+        final int[] arr = getIntArray(key);
+        return arr == null ? null : IntBuffer.wrap(arr).asReadOnlyBuffer();
+    }
+
 	/*
 	 - Getters - Longs
 	 */
 
     @Nullable
     public Long getLong(@NotNull String key) {
-        return getMap().get(key, Long.class);
+        return getMap().getLong(key);
     }
 
     public long getLong(@NotNull String key, long def) {
@@ -279,6 +488,16 @@ public abstract class DataProvider {
         return l == null ? def : l;
     }
 
+    @Nullable
+    public Long getLong(@NotNull KeyPath path) {
+        return getMap().getLong(path);
+    }
+
+    public long getLong(@NotNull KeyPath path, long def) {
+        final Long l = getLong(path);
+        return l == null ? def : l;
+    }
+
     @Nullable
     public List<Long> getLongs(@NotNull String key) {
         return getMap().getList(key, Long.class);
@@ -290,13 +509,56 @@ public abstract class DataProvider {
         return lst == null ? def : lst;
     }
 
+    /**
+     * Gets a {@code long} array from this {@link DataProvider}. Lists set from an array, such as with
+     * {@link DataManager#setLongs(String, long[])}, are stored as a {@link PrimitiveList}, so this method can copy them
+     * without boxing any element. Other {@link Long} lists are unboxed. Use {@link #getLongBuffer(String)} to
+     * read them without copying.
+     *
+     * @param key the key to get the {@code long} array from.
+     *
+     * @return A new {@code long} array with the stored values or {@code null} if {@code key} didn't exist or contains
+     * a different type of value.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    public long @Nullable [] getLongArray(@NotNull String key) {
+        if (getMap().get(key) instanceof PrimitiveList.OfLong lst)
+            return lst.toLongArray();
+        final List<Long> lst = getLongs(key);
+        return lst == null ? null : JCollections.toLongArray(lst);
+    }
+
+    /**
+     * Gets a read-only {@link LongBuffer} from this {@link DataProvider}. Lists set from an array, such as with
+     * {@link DataManager#setLongs(String, long[])}, are stored as a {@link PrimitiveList}, so the returned buffer is
+     * a view of the stored array and neither copies nor boxes any element. Other {@link Long} lists are unboxed
+     * into a new array first.
+     *
+     * @param key the key to get the {@link LongBuffer} from.
+     *
+     * @return A read-only {@link LongBuffer} with the stored values or {@code null} if {@code key} didn't exist or
+     * contains a different type of value.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    @Nullable
+    public LongBuffer getLongBuffer(@NotNull String key) {
+        if (getMap().get(key) instanceof PrimitiveList.OfLong lst)
+            return lst.asBuffer();
+        final long[] arr = getLongArray(key);
+        return arr == null ? null : LongBuffer.wrap(arr).asReadOnlyBuffer();
+    }
+
 	/*
 	 - Getters - Floats
 	 */
 
     @Nullable
     public Float getFloat(@NotNull String key) {
-        return getMap().get(key, Float.class);
+        return getMap().getFloat(key);
     }
 
     public float getFloat(@NotNull String key, float def) {
@@ -304,6 +566,16 @@ public abstract class DataProvider {
         return f == null ? def : f;
     }
 
+    @Nullable
+    public Float getFloat(@NotNull KeyPath path) {
+        return getMap().getFloat(path);
+    }
+
+    public float getFloat(@NotNull KeyPath path, float def) {
+        final Float f = getFloat(path);
+        return f == null ? def : f;
+    }
+
     @Nullable
     public List<Float> getFloats(@NotNull String key) {
         return getMap().getList(key, Float.class);
@@ -315,13 +587,56 @@ public abstract class DataProvider {
         return lst == null ? def : lst;
     }
 
+    /**
+     * Gets a {@code float} array from this {@link DataProvider}. Lists set from an array, such as with
+     * {@link DataManager#setFloats(String, float[])}, are stored as a {@link PrimitiveList}, so this method can copy them
+     * without boxing any element. Other {@link Float} lists are unboxed. Use {@link #getFloatBuffer(String)} to
+     * read them without copying.
+     *
+     * @param key the key to get the {@code float} array from.
+     *
+     * @return A new {@code float} array with the stored values or {@code null} if {@code key} didn't exist or contains
+     * a different type of value.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    public float @Nullable [] getFloatArray(@NotNull String key) {
+        if (getMap().get(key) instanceof PrimitiveList.OfFloat lst)
+            return lst.toFloatArray();
+        final List<Float> lst = getFloats(key);
+        return lst == null ? null : JCollections.toFloatArray(lst);
+    }
+
+    /**
+     * Gets a read-only {@link FloatBuffer} from this {@link DataProvider}. Lists set from an array, such as with
+     * {@link DataManager#setFloats(String, float[])}, are stored as a {@link PrimitiveList}, so the returned buffer is
+     * a view of the stored array and neither copies nor boxes any element. Other {@link Float} lists are unboxed
+     * into a new array first.
+     *
+     * @param key the key to get the {@link FloatBuffer} from.
+     *
+     * @return A read-only {@link FloatBuffer} with the stored values or {@code null} if {@code key} didn't exist or
+     * contains a different type of value.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    @Nullable
+    public FloatBuffer getFloatBuffer(@NotNull String key) {
+        if (getMap().get(key) instanceof PrimitiveList.OfFloat lst)
+            return lst.asBuffer();
+        final float[] arr = getFloatArray(key);
+        return arr == null ? null : FloatBuffer.wrap(arr).asReadOnlyBuffer();
+    }
+
 	/*
 	 - Getters - Doubles
 	 */
 
     @Nullable
     public Double getDouble(@NotNull String key) {
-        return getMap().get(key, Double.class);
+        return getMap().getDouble(key);
     }
 
     public double getDouble(@NotNull String key, double def) {
@@ -329,6 +644,16 @@ public abstract class DataProvider {
         return d == null ? def : d;
     }
 
+    @Nullable
+    public Double getDouble(@NotNull KeyPath path) {
+        return getMap().getDouble(path);
+    }
+
+    public double getDouble(@NotNull KeyPath path, double def) {
+        final Double d = getDouble(path);
+        return d == null ? def : d;
+    }
+
     @Nullable
     public List<Double> getDoubles(@NotNull String key) {
         return getMap().getList(key, Double.class);
@@ -340,13 +665,56 @@ public abstract class DataProvider {
         return lst == null ? def : lst;
     }
 
+    /**
+     * Gets a {@code double} array from this {@link DataProvider}. Lists set from an array, such as with
+     * {@link DataManager#setDoubles(String, double[])}, are stored as a {@link PrimitiveList}, so this method can copy them
+     * without boxing any element. Other {@link Double} lists are unboxed. Use {@link #getDoubleBuffer(String)} to
+     * read them without copying.
+     *
+     * @param key the key to get the {@code double} array from.
+     *
+     * @return A new {@code double} array with the stored values or {@code null} if {@code key} didn't exist or contains
+     * a different type of value.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    public double @Nullable [] getDoubleArray(@NotNull String key) {
+        if (getMap().get(key) instanceof PrimitiveList.OfDouble lst)
+            return lst.toDoubleArray();
+        final List<Double> lst = getDoubles(key);
+        return lst == null ? null : JCollections.toDoubleArray(lst);
+    }
+
+    /**
+     * Gets a read-only {@link DoubleBuffer} from this {@link DataProvider}. Lists set from an array, such as with
+     * {@link DataManager#setDoubles(String, double[])}, are stored as a {@link PrimitiveList}, so the returned buffer is
+     * a view of the stored array and neither copies nor boxes any element. Other {@link Double} lists are unboxed
+     * into a new array first.
+     *
+     * @param key the key to get the {@link DoubleBuffer} from.
+     *
+     * @return A read-only {@link DoubleBuffer} with the stored values or {@code null} if {@code key} didn't exist or
+     * contains a different type of value.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    @Nullable
+    public DoubleBuffer getDoubleBuffer(@NotNull String key) {
+        if (getMap().get(key) instanceof PrimitiveList.OfDouble lst)
+            return lst.asBuffer();
+        final double[] arr = getDoubleArray(key);
+        return arr == null ? null : DoubleBuffer.wrap(arr).asReadOnlyBuffer();
+    }
+
 	/*
 	 - Getters - UUIDs
 	 */
 
     @Nullable
     public UUID getUUID(@NotNull String key) {
-        return getMap().get(key, UUID.class);
+        return getMap().getUUID(key);
     }
 
     @NotNull
@@ -355,6 +723,17 @@ public abstract class DataProvider {
         return uuid == null ? def : uuid;
     }
 
+    @Nullable
+    public UUID getUUID(@NotNull KeyPath path) {
+        return getMap().getUUID(path);
+    }
+
+    @NotNull
+    public UUID getUUID(@NotNull KeyPath path, @NotNull UUID def) {
+        final UUID uuid = getUUID(path);
+        return uuid == null ? def : uuid;
+    }
+
     @Nullable
     public List<UUID> getUUIDs(@NotNull String key) {
         return getMap().getList(key, UUID.class);
@@ -381,6 +760,11 @@ public abstract class DataProvider {
         return obj == null ? def : obj;
     }
 
+    @Nullable
+    public Object getObject(@NotNull KeyPath path) {
+        return getMap().get(path);
+    }
+
     @Nullable
     public List<Object> getObjects(@NotNull String key) {
         return getMap().getList(key);
@@ -0,0 +1,141 @@
+package net.codersky.jsky.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A pre-split key, used to access {@link DataMap#usesNesting() nested} values without splitting the key on every
+ * access. Keys are split by the {@code '.'} character, so the {@link KeyPath} of <i>"key.nestedKey"</i> has two
+ * parts, <i>"key"</i> and <i>"nestedKey"</i>.
+ * <p>
+ * {@link DataMap} already caches the {@link KeyPath} of recently used {@link String} keys, but code that reads the
+ * same key very often can hold a {@link KeyPath} created with {@link #of(String)} to skip even the cache lookup:
+ * <pre>
+ * private static final KeyPath MAX_PLAYERS = KeyPath.of("server.max-players");
+ *
+ * int maxPlayers = config.getInt(MAX_PLAYERS, 20);
+ * </pre>
+ * {@link KeyPath KeyPaths} are immutable and thus safe to share between threads and {@link DataMap DataMaps}.
+ *
+ * @author xDec0de_
+ * @since JSky 1.0.0
+ */
+public final class KeyPath {
+
+    private final String key;
+    private final String[] parts;
+
+    private KeyPath(@NotNull String key, @NotNull String @NotNull [] parts) {
+        this.key = key;
+        this.parts = parts;
+    }
+
+    /**
+     * Creates a new {@link KeyPath} for the provided {@code key}, splitting it by the {@code '.'} character.
+     *
+     * @param key The key to create the {@link KeyPath} for.
+     *
+     * @return A new {@link KeyPath} for {@code key}.
+     *
+     * @throws NullPointerException if {@code key} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public static KeyPath of(@NotNull String key) {
+        return new KeyPath(key, split(key));
+    }
+
+    @NotNull
+    private static String @NotNull [] split(@NotNull String key) {
+        int count = 1;
+        for (int i = key.indexOf('.'); i != -1; i = key.indexOf('.', i + 1))
+            count++;
+        if (count == 1)
+            return new String[]{key};
+        final String[] parts = new String[count];
+        int start = 0;
+        for (int i = 0; i < count - 1; i++) {
+            final int end = key.indexOf('.', start);
+            parts[i] = key.substring(start, end);
+            start = end + 1;
+        }
+        parts[count - 1] = key.substring(start);
+        return parts;
+    }
+
+	/*
+	 - Information
+	 */
+
+    /**
+     * Gets the full key of this {@link KeyPath}, without splitting.
+     *
+     * @return The full key of this {@link KeyPath}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the amount of parts of this {@link KeyPath}, which is always at least {@code 1}.
+     *
+     * @return The amount of parts of this {@link KeyPath}.
+     *
+     * @since JSky 1.0.0
+     */
+    public int size() {
+        return parts.length;
+    }
+
+    /**
+     * Gets the part of this {@link KeyPath} at the specified {@code index}.
+     *
+     * @param index The index of the part to get.
+     *
+     * @return The part at {@code index}.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public String get(int index) {
+        return parts[index];
+    }
+
+    /**
+     * Gets the last part of this {@link KeyPath}, which is the key of the value inside its parent map.
+     *
+     * @return The last part of this {@link KeyPath}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public String getLast() {
+        return parts[parts.length - 1];
+    }
+
+	/*
+	 - Object override
+	 */
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        return obj == this || (obj instanceof final KeyPath other && key.equals(other.key));
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "KeyPath" + Arrays.toString(parts);
+    }
+}
@@ -0,0 +1,29 @@
+package net.codersky.jsky.storage;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A value stored on a {@link DataMap} that hasn't been parsed yet. Storages can store {@link LazyValue LazyValues}
+ * while loading in order to skip parsing values that may never be read, as {@link DataMap} getters
+ * {@link #resolve() resolve} them transparently the first time that they are accessed.
+ * <p>
+ * Keep in mind that methods that give access to the raw contents of a {@link DataMap}, such as
+ * {@link DataMap#getEntries()} or {@link DataMap#getSnapshot()}, return {@link LazyValue LazyValues} as is.
+ *
+ * @author xDec0de_
+ * @since JSky 1.0.0
+ */
+@FunctionalInterface
+public interface LazyValue {
+
+    /**
+     * Parses this {@link LazyValue}. Implementations may cache the parsed value, but they must always return an
+     * {@link Object#equals(Object) equal} value and they must be safe to call from multiple threads.
+     *
+     * @return The parsed value, {@code null} if it couldn't be parsed.
+     *
+     * @since JSky 1.0.0
+     */
+    @Nullable
+    Object resolve();
+}
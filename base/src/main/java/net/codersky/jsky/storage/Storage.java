@@ -2,6 +2,14 @@ package net.codersky.jsky.storage;
 
 import net.codersky.jsky.Reloadable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * {@link DataManager} {@code abstract class} extension that provides the {@link #setup()} and {@link #save()}
@@ -14,6 +22,17 @@ import org.jetbrains.annotations.NotNull;
  */
 public abstract class Storage extends DataManager implements Reloadable {
 
+    /** The default delay used by {@link #saveAsync()}. */
+    public static final Duration DEFAULT_SAVE_DELAY = Duration.ofSeconds(1);
+
+    /** Save scheduled by {@link #saveAsync(Duration)} that hasn't started yet, if any. */
+    private CompletableFuture<Boolean> pendingSave = null;
+    // Not synchronized on this, as storages may synchronize their save() method, which could block callers.
+    private final Object saveLock = new Object();
+    private volatile boolean syncWrites = true;
+    /** The {@link StorageWatcher} that watches the file of this storage, if any. */
+    private volatile StorageWatcher watcher = null;
+
     protected Storage(@NotNull DataMap map) {
         super(map);
     }
@@ -36,10 +55,135 @@ public abstract class Storage extends DataManager implements Reloadable {
     /**
      * Saves the cached data of this {@link Storage} to the actual storage. Keep in mind that some storage types may
      * take a long time to save.
+     * <p>
+     * Implementations should clear the {@link DataMap#isModified() modification} flag before reading the data to
+     * save, restoring it if saving fails, so modifications made while saving are written by the next save.
      *
      * @return {@code true} if this {@link Storage} was saved, {@code false} otherwise.
      *
      * @since JSky 1.0.0
      */
     public abstract boolean save();
+
+    /**
+     * Notifies the {@link StorageWatcher} that watches this {@link Storage}, if any, that {@code file} was just written
+     * by this {@link Storage}, so that the change isn't reloaded. Storages that save to files should call this after
+     * every successful write.
+     *
+     * @param file The {@link File} that was written.
+     *
+     * @see StorageWatcher#markSaved(File)
+     * @since JSky 1.0.0
+     */
+    protected final void markSaved(@NotNull File file) {
+        final StorageWatcher watcher = this.watcher;
+        if (watcher != null)
+            watcher.markSaved(file);
+    }
+
+    // Set by StorageWatcher when this storage starts or stops being watched.
+    void setWatcher(@Nullable StorageWatcher watcher) {
+        this.watcher = watcher;
+    }
+
+    @Nullable
+    StorageWatcher getWatcher() {
+        return watcher;
+    }
+
+    /**
+     * Sets whether {@link #save() saves} should wait for the data to be physically written to the storage device, for
+     * example, by {@link java.nio.channels.FileChannel#force(boolean) forcing} file writes. This is enabled by default.
+     * Disabling it makes saving faster, at the cost of possibly losing the latest saves if the system crashes. Storages
+     * that don't support this option ignore it.
+     *
+     * @param syncWrites Whether saves should wait for the data to be physically written or not.
+     *
+     * @return This {@link Storage}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public Storage setSyncWrites(boolean syncWrites) {
+        this.syncWrites = syncWrites;
+        return this;
+    }
+
+    /**
+     * Checks whether {@link #save() saves} wait for the data to be physically written to the storage device or not.
+     *
+     * @return {@code true} if saves wait for the data to be physically written, {@code false} otherwise.
+     *
+     * @see #setSyncWrites(boolean)
+     * @since JSky 1.0.0
+     */
+    public boolean syncsWrites() {
+        return syncWrites;
+    }
+
+    /**
+     * {@link #save() Saves} this {@link Storage} asynchronously after the {@link #DEFAULT_SAVE_DELAY default delay}.
+     * See {@link #saveAsync(Duration)} for details.
+     *
+     * @return A {@link CompletableFuture} that completes with the result of {@link #save()}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public CompletableFuture<Boolean> saveAsync() {
+        return saveAsync(DEFAULT_SAVE_DELAY);
+    }
+
+    /**
+     * {@link #save() Saves} this {@link Storage} asynchronously after the provided {@code delay}, so callers don't
+     * need to wait for the storage to be written. Requests made before the scheduled save starts are coalesced into
+     * it, so calling this method after every modification results in a single save per {@code delay}, while requests
+     * made once the save started schedule a new one, making sure that every modification gets saved.
+     * <p>
+     * Saves run on a dedicated daemon thread that is shared by every {@link Storage}, so pending saves are lost if the
+     * JVM exits before they run. {@link CompletableFuture#join() Join} the returned {@link CompletableFuture} or call
+     * {@link #save()} directly before exiting to avoid this.
+     * <p>
+     * As saves run on another thread, this {@link Storage} must use a {@link DataMap#isConcurrent() concurrent}
+     * {@link DataMap} if it is modified while a save runs. Otherwise, the save may fail with a
+     * {@link java.util.ConcurrentModificationException} or write a partially modified copy of its contents.
+     *
+     * @param delay The time to wait before saving.
+     *
+     * @return A {@link CompletableFuture} that completes with the result of {@link #save()}, or exceptionally if it
+     * throws an exception. Coalesced requests get the same {@link CompletableFuture}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public CompletableFuture<Boolean> saveAsync(@NotNull Duration delay) {
+        synchronized (saveLock) {
+            if (pendingSave != null)
+                return pendingSave;
+            final CompletableFuture<Boolean> future = new CompletableFuture<>();
+            pendingSave = future;
+            Saver.EXECUTOR.schedule(() -> {
+                // Cleared before saving so that modifications made while saving schedule a new save.
+                synchronized (saveLock) {
+                    pendingSave = null;
+                }
+                try {
+                    future.complete(save());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }, delay.toNanos(), TimeUnit.NANOSECONDS);
+            return future;
+        }
+    }
+
+    // Lazily creates the saving thread the first time that it's needed.
+    private static final class Saver {
+
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "JSky Storage saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
@@ -0,0 +1,310 @@
+package net.codersky.jsky.storage;
+
+import net.codersky.jsky.Reloadable;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Watches files for changes made outside of the program, automatically {@link Reloadable#reload() reloading} the
+ * {@link Reloadable} associated to them, such as any {@link Storage}. Changes are detected with a {@link WatchService},
+ * so files aren't polled, and bursts of changes are debounced, so a file is only reloaded once the
+ * {@link #getDebounce() debounce} time passes without new changes. Reloads are skipped if the contents of the file
+ * didn't actually change, which is checked by comparing their checksums.
+ * <p>
+ * Reloads happen on a background thread, so a watched {@link Storage} must use a
+ * {@link DataMap#isConcurrent() concurrent} {@link DataMap}, which makes reloads atomic, so readers see either the
+ * old contents or the new ones. Keep in mind that reloading discards any change that wasn't saved. Files written by
+ * the watched {@link Storage} itself are {@link #markSaved(File) marked as saved}, so its own saves don't reload it.
+ * <p>
+ * Most programs can just use the {@link #getShared() shared} {@link StorageWatcher}, which uses a single daemon thread
+ * for every watched file.
+ *
+ * @author xDec0de_
+ * @since JSky 1.0.0
+ */
+public final class StorageWatcher implements Closeable {
+
+    /** The default debounce time of a {@link StorageWatcher}. */
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(250);
+
+    private final Duration debounce;
+    private final WatchService service;
+    private final ScheduledExecutorService executor;
+    /** Watched files, with their absolute path as key. Guarded by this. */
+    private final Map<Path, Watched> watched = new HashMap<>();
+    /** Directories registered on the WatchService. Guarded by this. */
+    private final Map<Path, WatchKey> directories = new HashMap<>();
+
+    /**
+     * Creates a new {@link StorageWatcher}, starting its background thread. Remember to {@link #close()} it once it
+     * isn't needed, or use the {@link #getShared() shared} {@link StorageWatcher} instead.
+     *
+     * @param debounce The time to wait after a file changes before reloading it, restarted by every change.
+     *
+     * @throws IOException If the {@link WatchService} can't be created.
+     * @since JSky 1.0.0
+     */
+    public StorageWatcher(@NotNull Duration debounce) throws IOException {
+        this.debounce = debounce;
+        this.service = FileSystems.getDefault().newWatchService();
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "JSky StorageWatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final Thread poller = new Thread(this::poll, "JSky StorageWatcher poller");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    public StorageWatcher() throws IOException {
+        this(DEFAULT_DEBOUNCE);
+    }
+
+    /**
+     * Gets the shared {@link StorageWatcher}, which uses the {@link #DEFAULT_DEBOUNCE default debounce} time and is
+     * created the first time that this method is called.
+     *
+     * @return The shared {@link StorageWatcher}.
+     *
+     * @throws IllegalStateException If the {@link WatchService} of the shared instance couldn't be created.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public static StorageWatcher getShared() {
+        return Shared.INSTANCE;
+    }
+
+    @NotNull
+    public Duration getDebounce() {
+        return debounce;
+    }
+
+	/*
+	 - Watching
+	 */
+
+    /**
+     * Starts watching the provided {@code file}, {@link Reloadable#reload() reloading} {@code target} whenever the
+     * contents of {@code file} change. If {@code file} was already being watched, its previous {@code target} is
+     * replaced. The file doesn't need to exist, but its parent directory does.
+     *
+     * @param file The {@link File} to watch.
+     * @param target The {@link Reloadable} to reload when {@code file} changes.
+     *
+     * @return This {@link StorageWatcher}.
+     *
+     * @throws IllegalArgumentException If {@code target} is a {@link Storage} that doesn't use a
+     * {@link DataMap#isConcurrent() concurrent} {@link DataMap}, as readers could see it empty while it reloads.
+     * @throws IOException If the parent directory of {@code file} can't be watched.
+     * @throws ClosedWatchServiceException If this {@link StorageWatcher} is {@link #close() closed}.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public synchronized StorageWatcher watch(@NotNull File file, @NotNull Reloadable target) throws IOException {
+        if (target instanceof Storage storage && !storage.getMap().isConcurrent())
+            throw new IllegalArgumentException("Watched storages must use a concurrent DataMap");
+        final Path path = toPath(file);
+        final Path directory = path.getParent();
+        if (!directories.containsKey(directory))
+            directories.put(directory, directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+        final Watched previous = watched.put(path, new Watched(path, target, checksum(path)));
+        if (previous != null)
+            previous.stop(this);
+        if (target instanceof Storage storage)
+            storage.setWatcher(this);
+        return this;
+    }
+
+    /**
+     * Marks the provided {@code file} as saved by its own program, so the change isn't reloaded unless its contents
+     * change again. Storages call this automatically after saving, so this is only needed for files that are written
+     * by other means, such as a watched {@link ConfigBinding} whose {@link Storage} is saved.
+     *
+     * @param file The {@link File} that was written.
+     *
+     * @since JSky 1.0.0
+     */
+    public synchronized void markSaved(@NotNull File file) {
+        final Watched saved = watched.get(toPath(file));
+        // Runs before any reload scheduled by the change, as those are delayed by the debounce time.
+        if (saved != null && !executor.isShutdown())
+            executor.execute(saved::refreshChecksum);
+    }
+
+    /**
+     * Stops watching the provided {@code file}. Reloads that were already scheduled are cancelled.
+     *
+     * @param file The {@link File} to stop watching.
+     *
+     * @return {@code true} if {@code file} was being watched, {@code false} otherwise.
+     *
+     * @since JSky 1.0.0
+     */
+    public synchronized boolean unwatch(@NotNull File file) {
+        final Path path = toPath(file);
+        final Watched removed = watched.remove(path);
+        if (removed == null)
+            return false;
+        removed.stop(this);
+        final Path directory = path.getParent();
+        if (watched.keySet().stream().noneMatch(other -> other.getParent().equals(directory)))
+            directories.remove(directory).cancel();
+        return true;
+    }
+
+    /**
+     * Checks whether the provided {@code file} is being watched by this {@link StorageWatcher} or not.
+     *
+     * @param file The {@link File} to check.
+     *
+     * @return {@code true} if {@code file} is being watched, {@code false} otherwise.
+     *
+     * @since JSky 1.0.0
+     */
+    public synchronized boolean isWatched(@NotNull File file) {
+        return watched.containsKey(toPath(file));
+    }
+
+    /**
+     * Stops watching every file and stops the background threads of this {@link StorageWatcher}.
+     *
+     * @throws IOException If the {@link WatchService} couldn't be closed.
+     * @since JSky 1.0.0
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        watched.values().forEach(file -> file.stop(this));
+        watched.clear();
+        directories.clear();
+        executor.shutdownNow();
+        service.close();
+    }
+
+	/*
+	 - Change detection
+	 */
+
+    @NotNull
+    private static Path toPath(@NotNull File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+    private void poll() {
+        try {
+            while (true) {
+                final WatchKey key = service.take();
+                final Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents())
+                    if (event.context() instanceof Path name)
+                        changed(directory.resolve(name));
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Closed, nothing else to watch.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void changed(@NotNull Path path) {
+        final Watched file = watched.get(path);
+        if (file == null || executor.isShutdown())
+            return;
+        file.cancel();
+        file.pending = executor.schedule(file::reloadIfChanged, debounce.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    // Returns -1 if the file can't be read, for example, because it doesn't exist.
+    private static long checksum(@NotNull Path path) {
+        final CRC32C crc = new CRC32C();
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return crc.getValue();
+    }
+
+    private static final class Watched {
+
+        private final Path path;
+        private final Reloadable target;
+        /** Checksum of the contents that were last loaded. Only accessed by the reloading thread after creation. */
+        private long checksum;
+        /** Scheduled reload, if any. Guarded by the {@link StorageWatcher}. */
+        private ScheduledFuture<?> pending = null;
+
+        private Watched(@NotNull Path path, @NotNull Reloadable target, long checksum) {
+            this.path = path;
+            this.target = target;
+            this.checksum = checksum;
+        }
+
+        private void cancel() {
+            if (pending != null)
+                pending.cancel(false);
+        }
+
+        // Called once this file stops being watched by the provided watcher.
+        private void stop(@NotNull StorageWatcher watcher) {
+            cancel();
+            if (target instanceof Storage storage && storage.getWatcher() == watcher)
+                storage.setWatcher(null);
+        }
+
+        private void refreshChecksum() {
+            final long current = checksum(path);
+            if (current != -1)
+                checksum = current;
+        }
+
+        private void reloadIfChanged() {
+            final long current = checksum(path);
+            // Deleted or unreadable files are ignored, they may just be being replaced.
+            if (current == -1 || current == checksum)
+                return;
+            if (target.reload())
+                checksum = current;
+        }
+    }
+
+    private static final class Shared {
+
+        private static final StorageWatcher INSTANCE;
+
+        static {
+            try {
+                INSTANCE = new StorageWatcher();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to create the shared StorageWatcher", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package net.codersky.jsky.storage.local;
+
+import net.codersky.jsky.JFiles;
+import net.codersky.jsky.collections.PrimitiveList;
+import net.codersky.jsky.storage.DataMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+
+/**
+ * Binary companion of {@link FlatStorage}, supporting the same data types. Instead of parsing text, files are
+ * {@link FileChannel#map(FileChannel.MapMode, long, long) memory-mapped} and read as typed values, while saving writes
+ * them {@link JFiles#writeAtomically(File, boolean, JFiles.ChannelWriter) atomically} through a reusable
+ * {@link ByteBuffer}, making both operations much faster on big storages. Numeric lists are loaded directly as
+ * {@link PrimitiveList PrimitiveLists}, without boxing their elements.
+ * <p>
+ * Files start with the {@link #MAGIC} number and a {@link #VERSION} byte, followed by the entries. Every entry is
+ * stored as the type identifier used by {@link FlatStorage}, ORed with {@link #LIST_FLAG} for lists, the length
+ * prefixed UTF-8 key and the value. Strings are stored as their length prefixed UTF-8 bytes and lists as their size
+ * followed by their elements.
+ *
+ * @author xDec0de_
+ * @since JSky 1.0.0
+ */
+public class BinaryFlatStorage extends FileStorage {
+
+    /** The required file extension for {@link BinaryFlatStorage} files. */
+    public static final String FILE_EXTENSION = ".jflatb";
+    /** The magic number that every {@link BinaryFlatStorage} file starts with, <i>"JFLB"</i>. */
+    public static final int MAGIC = 0x4A464C42;
+    /** The current version of the format. */
+    public static final byte VERSION = 1;
+    /** Flag added to the type identifier of list entries. */
+    public static final byte LIST_FLAG = (byte) 0x80;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public BinaryFlatStorage(@NotNull File file) {
+        this(file, false);
+    }
+
+    /**
+     * Creates a new {@link BinaryFlatStorage} for the provided {@code file}.
+     *
+     * @param file The {@link File} to use, which must have the {@link #FILE_EXTENSION required extension}.
+     * @param concurrent Whether to use a {@link DataMap#isConcurrent() concurrent} {@link DataMap} or not, allowing
+     * this {@link BinaryFlatStorage} to be read from many threads without any external lock.
+     *
+     * @throws IllegalArgumentException if {@code file} doesn't have the {@link #FILE_EXTENSION required extension}.
+     * @since JSky 1.0.0
+     */
+    public BinaryFlatStorage(@NotNull File file, boolean concurrent) {
+        super(new DataMap(false, concurrent), file, FILE_EXTENSION);
+    }
+
+    public BinaryFlatStorage(@NotNull String path) {
+        this(path, false);
+    }
+
+    /**
+     * Creates a new {@link BinaryFlatStorage} for the provided {@code path}, adding the
+     * {@link #FILE_EXTENSION required extension} to it if missing.
+     *
+     * @param path The path of the file to use.
+     * @param concurrent Whether to use a {@link DataMap#isConcurrent() concurrent} {@link DataMap} or not, allowing
+     * this {@link BinaryFlatStorage} to be read from many threads without any external lock.
+     *
+     * @since JSky 1.0.0
+     */
+    public BinaryFlatStorage(@NotNull String path, boolean concurrent) {
+        super(new DataMap(false, concurrent), path, FILE_EXTENSION);
+    }
+
+	/*
+	 - Saving
+	 */
+
+    /**
+     * Saves this {@link BinaryFlatStorage} to its {@link #asFile() file}. Unlike {@link FlatStorage}, values that
+     * can't be stored, such as values of unsupported types or lists with elements of different types, are not skipped.
+     * Instead, the failure is reported and the file is left untouched, so no data is lost.
+     *
+     * @return {@code true} if this {@link BinaryFlatStorage} was saved, {@code false} if it failed to save or any
+     * value couldn't be stored.
+     *
+     * @since JSky 1.0.0
+     */
+    @Override
+    public boolean save() {
+        if (!getMap().isModified())
+            return true;
+        if (!setup())
+            return false;
+        // Cleared before taking the snapshot, so modifications made while saving are saved by the next save.
+        getMap().setModified(false);
+        try {
+            // Written atomically, so a crash while saving never leaves a partially written file.
+            JFiles.writeAtomically(asFile(), syncsWrites(), channel -> {
+                final Writer writer = new Writer(channel);
+                writer.ensure(5).putInt(MAGIC).put(VERSION);
+                for (Entry<String, Object> entry : getEntries())
+                    writer.writeEntry(entry.getKey(), entry.getValue());
+                writer.flush();
+            });
+            markSaved(asFile());
+        } catch (IOException e) {
+            e.printStackTrace();
+            getMap().setModified(true);
+            return false;
+        }
+        return true;
+    }
+
+	/*
+	 - Saving - Utility
+	 */
+
+    // Same identifiers as FlatStorage, numbers use the upper case initial of their class.
+    private static byte getTypeId(Object value) {
+        return switch (value) {
+            case String ignored -> 's';
+            case Character ignored -> 'c';
+            case Boolean ignored -> 'b';
+            case UUID ignored -> 'u';
+            case Byte ignored -> 'B';
+            case Short ignored -> 'S';
+            case Integer ignored -> 'I';
+            case Long ignored -> 'L';
+            case Float ignored -> 'F';
+            case Double ignored -> 'D';
+            case null, default -> 0;
+        };
+    }
+
+    private static final class Writer {
+
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        private Writer(@NotNull FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // Makes sure that the buffer has at least the specified amount of bytes remaining, flushing it if needed.
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes)
+                return buffer;
+            flush();
+            if (buffer.capacity() < bytes)
+                buffer = ByteBuffer.allocateDirect(bytes);
+            return buffer;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+
+        private void writeString(@NotNull String str) throws IOException {
+            final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length).putInt(bytes.length).put(bytes);
+        }
+
+        /**
+         * @throws IOException If the value can't be stored, such as a list with elements of different types, so the
+         * file isn't replaced and no data is lost.
+         */
+        private void writeEntry(@NotNull String key, Object value) throws IOException {
+            if (value instanceof List<?> lst) {
+                if (lst.isEmpty())
+                    return;
+                final byte type = getTypeId(lst.getFirst());
+                if (type == 0)
+                    throw unsupported(key, lst.getFirst());
+                // Checked before writing anything, as writeValue requires every element to be of the same type.
+                for (Object element : lst)
+                    if (getTypeId(element) != type)
+                        throw new IOException("Cannot store \"" + key + "\", lists can't mix element types.");
+                ensure(1).put((byte) (type | LIST_FLAG));
+                writeString(key);
+                ensure(4).putInt(lst.size());
+                for (Object element : lst)
+                    writeValue(type, element);
+            } else if (value != null) {
+                final byte type = getTypeId(value);
+                if (type == 0)
+                    throw unsupported(key, value);
+                ensure(1).put(type);
+                writeString(key);
+                writeValue(type, value);
+            }
+        }
+
+        @NotNull
+        private static IOException unsupported(@NotNull String key, @NotNull Object value) {
+            return new IOException("Cannot store \"" + key + "\", unsupported type: " + value.getClass().getName());
+        }
+
+        private void writeValue(byte type, @NotNull Object value) throws IOException {
+            switch (type) {
+                case 's' -> writeString((String) value);
+                case 'c' -> ensure(2).putChar((Character) value);
+                case 'b' -> ensure(1).put((byte) ((Boolean) value ? 1 : 0));
+                case 'u' -> {
+                    final UUID uuid = (UUID) value;
+                    ensure(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+                }
+                case 'B' -> ensure(1).put((Byte) value);
+                case 'S' -> ensure(2).putShort((Short) value);
+                case 'I' -> ensure(4).putInt((Integer) value);
+                case 'L' -> ensure(8).putLong((Long) value);
+                case 'F' -> ensure(4).putFloat((Float) value);
+                case 'D' -> ensure(8).putDouble((Double) value);
+            }
+        }
+    }
+
+	/*
+	 - Loading
+	 */
+
+    @Override
+    public boolean reload() {
+        if (!setup())
+            return false;
+        // Entries are loaded on a separate map and then set on a single write.
+        final LinkedHashMap<String, Object> loaded = new LinkedHashMap<>();
+        try (final FileChannel channel = FileChannel.open(asFile().toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size != 0) {
+                if (size > Integer.MAX_VALUE)
+                    throw new IOException("BinaryFlatStorage files can't be bigger than 2GB (" + asFile() + ")");
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (buffer.getInt() != MAGIC || buffer.get() != VERSION)
+                    throw new IOException("Unsupported BinaryFlatStorage file: " + asFile());
+                while (buffer.hasRemaining())
+                    readEntry(buffer, loaded);
+            }
+            // Replaced at once, so readers of concurrent maps never see a partially loaded storage.
+            getMap().setContents(loaded);
+            getMap().setModified(false);
+            return true;
+        } catch (IOException | BufferUnderflowException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private void readEntry(@NotNull ByteBuffer buffer, @NotNull Map<String, Object> target) throws IOException {
+        final byte id = buffer.get();
+        final byte type = (byte) (id & ~LIST_FLAG);
+        final String key = readString(buffer);
+        if ((id & LIST_FLAG) == 0)
+            target.put(key, readValue(buffer, type));
+        else
+            target.put(key, readList(buffer, type, readSize(buffer)));
+    }
+
+    // Sizes are checked so that corrupted files don't allocate huge arrays.
+    private int readSize(@NotNull ByteBuffer buffer) throws IOException {
+        final int size = buffer.getInt();
+        if (size < 0 || size > buffer.remaining())
+            throw new IOException("Corrupted BinaryFlatStorage file: " + asFile());
+        return size;
+    }
+
+    @NotNull
+    private String readString(@NotNull ByteBuffer buffer) throws IOException {
+        final byte[] bytes = new byte[readSize(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @NotNull
+    private Object readValue(@NotNull ByteBuffer buffer, byte type) throws IOException {
+        return switch (type) {
+            case 's' -> readString(buffer);
+            case 'c' -> buffer.getChar();
+            case 'b' -> buffer.get() != 0;
+            case 'u' -> new UUID(buffer.getLong(), buffer.getLong());
+            case 'B' -> buffer.get();
+            case 'S' -> buffer.getShort();
+            case 'I' -> buffer.getInt();
+            case 'L' -> buffer.getLong();
+            case 'F' -> buffer.getFloat();
+            case 'D' -> buffer.getDouble();
+            default -> throw new IOException("Unknown BinaryFlatStorage type '" + (char) type + "' on " + asFile());
+        };
+    }
+
+    // Numeric lists are read in bulk into a PrimitiveList, other types into an ArrayList.
+    @NotNull
+    private List<?> readList(@NotNull ByteBuffer buffer, byte type, int size) throws IOException {
+        switch (type) {
+            case 'B' -> {
+                final byte[] values = new byte[size];
+                buffer.get(values);
+                return PrimitiveList.wrap(values);
+            }
+            case 'S' -> {
+                final short[] values = new short[size];
+                buffer.asShortBuffer().get(values);
+                buffer.position(buffer.position() + size * Short.BYTES);
+                return PrimitiveList.wrap(values);
+            }
+            case 'I' -> {
+                final int[] values = new int[size];
+                buffer.asIntBuffer().get(values);
+                buffer.position(buffer.position() + size * Integer.BYTES);
+                return PrimitiveList.wrap(values);
+            }
+            case 'L' -> {
+                final long[] values = new long[size];
+                buffer.asLongBuffer().get(values);
+                buffer.position(buffer.position() + size * Long.BYTES);
+                return PrimitiveList.wrap(values);
+            }
+            case 'F' -> {
+                final float[] values = new float[size];
+                buffer.asFloatBuffer().get(values);
+                buffer.position(buffer.position() + size * Float.BYTES);
+                return PrimitiveList.wrap(values);
+            }
+            case 'D' -> {
+                final double[] values = new double[size];
+                buffer.asDoubleBuffer().get(values);
+                buffer.position(buffer.position() + size * Double.BYTES);
+                return PrimitiveList.wrap(values);
+            }
+            default -> {
+                final ArrayList<Object> lst = new ArrayList<>(size);
+                for (int i = 0; i < size; i++)
+                    lst.add(readValue(buffer, type));
+                return lst;
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package net.codersky.jsky.storage.local;
+
+import net.codersky.jsky.JFiles;
+import net.codersky.jsky.storage.DataMap;
+import net.codersky.jsky.storage.Storage;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+
+/**
+ * Base class of the {@link Storage} types that store their data on a single local {@link File} with a required
+ * extension, such as {@link FlatStorage} or {@link BinaryFlatStorage}.
+ *
+ * @author xDec0de_
+ * @since JSky 1.0.0
+ */
+public abstract class FileStorage extends Storage {
+
+    private final File file;
+    private final String extension;
+
+    /**
+     * Creates a new {@link FileStorage} for the provided {@code file}.
+     *
+     * @param map The {@link DataMap} to use.
+     * @param file The {@link File} to use, which must have the required {@code extension}.
+     * @param extension The required file extension, including the dot.
+     *
+     * @throws IllegalArgumentException if {@code file} doesn't have the required {@code extension}.
+     * @since JSky 1.0.0
+     */
+    protected FileStorage(@NotNull DataMap map, @NotNull File file, @NotNull String extension) {
+        super(map);
+        if (!file.getName().endsWith(extension))
+            throw new IllegalArgumentException(getClass().getSimpleName() + " only accepts files with the \"" + extension + "\" extension.");
+        this.extension = extension;
+        this.file = file;
+    }
+
+    /**
+     * Creates a new {@link FileStorage} for the provided {@code path}, adding the required {@code extension} to it if
+     * missing.
+     *
+     * @param map The {@link DataMap} to use.
+     * @param path The path of the file to use.
+     * @param extension The required file extension, including the dot.
+     *
+     * @since JSky 1.0.0
+     */
+    protected FileStorage(@NotNull DataMap map, @NotNull String path, @NotNull String extension) {
+        super(map);
+        this.extension = extension;
+        this.file = new File(fixExtension(path));
+    }
+
+	/*
+	 - Utility
+	 */
+
+    public boolean setup() {
+        return JFiles.create(file);
+    }
+
+    @NotNull
+    public final File asFile() {
+        return file;
+    }
+
+    public boolean rename(@NotNull String name) {
+        return file.renameTo(new File(file.getParent(), fixExtension(name)));
+    }
+
+    public final boolean exists() {
+        return file.exists();
+    }
+
+    public final String fixExtension(@NotNull final String path) {
+        return path.endsWith(extension) ? path : path + extension;
+    }
+}
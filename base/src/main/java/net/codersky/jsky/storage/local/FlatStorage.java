@@ -2,21 +2,36 @@ package net.codersky.jsky.storage.local;
 
 import net.codersky.jsky.JFiles;
 import net.codersky.jsky.storage.DataMap;
+import net.codersky.jsky.storage.LazyValue;
 import net.codersky.jsky.storage.Storage;
 import net.codersky.jsky.strings.JStrings;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.LinkedList;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 /**
  * {@link Storage} class used to store data on simple flat files while trying to keep the size of said files to a
@@ -26,82 +41,454 @@ import java.util.function.Function;
  * @author xDec0de_
  * @since JSky 1.0.0
  */
-public class FlatStorage extends Storage {
+public class FlatStorage extends FileStorage {
 
     /** The required file extension for {@link FlatStorage} files. */
     public static final String FILE_EXTENSION = ".jflat";
-    private final File file;
+    /** The extension added to the file name of the {@link #useJournal(boolean) journal} of a {@link FlatStorage}. */
+    public static final String JOURNAL_EXTENSION = ".log";
+    /** Default journal size, in bytes, after which the journal is compacted. See {@link #useJournal(boolean, long)}. */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** Approximate size, in bytes, of the chunks of a file that are parsed concurrently on parallel mode. */
+    private static final int PARALLEL_CHUNK_SIZE = 4 * 1024 * 1024;
+    /** Amount of entries that are serialized by each task on parallel mode. */
+    private static final int PARALLEL_CHUNK_ENTRIES = 16 * 1024;
+
+    /** Journal compaction threshold, negative if the journal isn't used. */
+    private volatile long compactionThreshold = -1;
+    /** Generation of the last snapshot, journals of older generations are obsolete. */
+    private long generation = 0;
+    /** Whether the next save must write a full snapshot, for example, because some changes weren't tracked. */
+    private boolean fullSave = false;
+    private Thread compaction = null;
+    /** Whether values are parsed on first access, see {@link #useLazyLoading(boolean, boolean)}. */
+    private volatile boolean lazy = false;
+    private volatile boolean cacheLazyValues = true;
+    private volatile boolean parallel = false;
 
     public FlatStorage(@NotNull File file) {
-        super(false);
-        if (!file.getName().endsWith(FILE_EXTENSION))
-            throw new IllegalArgumentException("FlatStorage only accepts files with the \"" + FILE_EXTENSION + "\" extension.");
-        this.file = file;
+        this(file, false);
+    }
+
+    /**
+     * Creates a new {@link FlatStorage} for the provided {@code file}.
+     *
+     * @param file The {@link File} to use, which must have the {@link #FILE_EXTENSION required extension}.
+     * @param concurrent Whether to use a {@link DataMap#isConcurrent() concurrent} {@link DataMap} or not, allowing
+     * this {@link FlatStorage} to be read from many threads without any external lock.
+     *
+     * @throws IllegalArgumentException if {@code file} doesn't have the {@link #FILE_EXTENSION required extension}.
+     * @since JSky 1.0.0
+     */
+    public FlatStorage(@NotNull File file, boolean concurrent) {
+        super(new DataMap(false, concurrent), file, FILE_EXTENSION);
     }
 
     public FlatStorage(@NotNull String path) {
-        super(false);
-        this.file = new File(fixExtension(path));
+        this(path, false);
+    }
+
+    /**
+     * Creates a new {@link FlatStorage} for the provided {@code path}, adding the {@link #FILE_EXTENSION required
+     * extension} to it if missing.
+     *
+     * @param path The path of the file to use.
+     * @param concurrent Whether to use a {@link DataMap#isConcurrent() concurrent} {@link DataMap} or not, allowing
+     * this {@link FlatStorage} to be read from many threads without any external lock.
+     *
+     * @since JSky 1.0.0
+     */
+    public FlatStorage(@NotNull String path, boolean concurrent) {
+        super(new DataMap(false, concurrent), path, FILE_EXTENSION);
+    }
+
+	/*
+	 - Journal
+	 */
+
+    /**
+     * Enables or disables the journal of this {@link FlatStorage} using the
+     * {@link #DEFAULT_COMPACTION_THRESHOLD default compaction threshold}. See {@link #useJournal(boolean, long)}.
+     *
+     * @param journal Whether to use the journal or not.
+     *
+     * @return This {@link FlatStorage}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public FlatStorage useJournal(boolean journal) {
+        return useJournal(journal, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Enables or disables the journal of this {@link FlatStorage}. While the journal is used, {@link #save()} only
+     * appends the entries that changed since the last save, including removals, to the {@link #getJournalFile()
+     * journal file}, syncing it to disk once per save unless disabled with {@link #setSyncWrites(boolean)}. This makes
+     * the cost of saving proportional to the amount of changes instead of the size of the storage. Once the journal
+     * grows over {@code compactionThreshold} bytes, it is compacted in the background by writing a full snapshot of
+     * the storage to the main file.
+     * <p>
+     * Journals are always applied on {@link #reload()}, even if the journal isn't currently used, and regular saves
+     * discard them once a full snapshot is written.
+     *
+     * @param journal Whether to use the journal or not.
+     * @param compactionThreshold The size, in bytes, of the journal after which it will be compacted.
+     *
+     * @return This {@link FlatStorage}.
+     *
+     * @throws IllegalArgumentException if {@code compactionThreshold} is negative.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public synchronized FlatStorage useJournal(boolean journal, long compactionThreshold) {
+        if (compactionThreshold < 0)
+            throw new IllegalArgumentException("The compaction threshold can't be negative.");
+        // Changes made before the journal was enabled weren't tracked.
+        if (journal && this.compactionThreshold < 0)
+            fullSave = true;
+        this.compactionThreshold = journal ? compactionThreshold : -1;
+        getMap().trackChanges(journal);
+        return this;
+    }
+
+    /**
+     * Checks whether this {@link FlatStorage} uses a journal or not.
+     *
+     * @return {@code true} if this {@link FlatStorage} uses a journal, {@code false} otherwise.
+     *
+     * @see #useJournal(boolean, long)
+     * @since JSky 1.0.0
+     */
+    public boolean usesJournal() {
+        return compactionThreshold >= 0;
+    }
+
+    /**
+     * Gets the journal {@link File} of this {@link FlatStorage}, which is the {@link #asFile() file} of this
+     * {@link FlatStorage} with the {@link #JOURNAL_EXTENSION journal extension} appended to its name.
+     *
+     * @return The journal {@link File} of this {@link FlatStorage}.
+     *
+     * @see #useJournal(boolean, long)
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public File getJournalFile() {
+        return new File(asFile().getPath() + JOURNAL_EXTENSION);
+    }
+
+    // Journal being compacted, kept until the snapshot that includes it is written.
+    @NotNull
+    private File getCompactingJournalFile() {
+        return new File(asFile().getPath() + JOURNAL_EXTENSION + ".old");
+    }
+
+    private long nextGeneration() {
+        return Math.max(generation + 1, System.currentTimeMillis());
     }
 
 	/*
-	 - Utility
+	 - Lazy loading
 	 */
 
-    public boolean setup() {
-        return JFiles.create(file);
+    /**
+     * Enables or disables lazy loading, caching parsed values. See {@link #useLazyLoading(boolean, boolean)}.
+     *
+     * @param lazy Whether to use lazy loading or not.
+     *
+     * @return This {@link FlatStorage}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public FlatStorage useLazyLoading(boolean lazy) {
+        return useLazyLoading(lazy, true);
     }
 
+    /**
+     * Enables or disables lazy loading. While enabled, {@link #reload()} only scans the file for keys, storing every
+     * value as an unparsed {@link LazyValue} that is parsed the first time that it is read, which makes reloading
+     * storages with many values that are rarely read much faster. Values that were never read are written back exactly
+     * as they were loaded when saving, without parsing them.
+     * <p>
+     * Keep in mind that the changes only apply to the next {@link #reload()}, and that methods that give access to the
+     * raw values of this storage, such as {@link #getEntries()}, return {@link LazyValue LazyValues} as is.
+     *
+     * @param lazy Whether to use lazy loading or not.
+     * @param cacheValues Whether to keep values once they are parsed or not. Not caching them saves the memory of
+     * large values that are rarely read, like big lists, at the cost of parsing them every time that they are read.
+     *
+     * @return This {@link FlatStorage}.
+     *
+     * @since JSky 1.0.0
+     */
     @NotNull
-    public final File asFile() {
-        return file;
+    public FlatStorage useLazyLoading(boolean lazy, boolean cacheValues) {
+        this.lazy = lazy;
+        this.cacheLazyValues = cacheValues;
+        return this;
     }
 
-    public boolean rename(@NotNull String name) {
-        return file.renameTo(new File(file.getParent(), fixExtension(name)));
+    /**
+     * Checks whether this {@link FlatStorage} uses lazy loading or not.
+     *
+     * @return {@code true} if this {@link FlatStorage} uses lazy loading, {@code false} otherwise.
+     *
+     * @see #useLazyLoading(boolean, boolean)
+     * @since JSky 1.0.0
+     */
+    public boolean usesLazyLoading() {
+        return lazy;
     }
 
-    public final boolean exists() {
-        return file.exists();
+    /** Line of an entry that will be parsed when it is first read. */
+    private final class LazyEntry implements LazyValue {
+
+        private final String line;
+        private final int valueStart;
+        private final boolean cache;
+        private volatile Object value = null;
+
+        private LazyEntry(@NotNull String line, int valueStart, boolean cache) {
+            this.line = line;
+            this.valueStart = valueStart;
+            this.cache = cache;
+        }
+
+        @Override
+        public Object resolve() {
+            Object value = this.value;
+            if (value != null)
+                return value;
+            final String raw = line.substring(valueStart);
+            try {
+                value = line.charAt(0) == '*' ? parseList(line.charAt(1), raw) : parseObj(line.charAt(0), raw);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                // Invalid values are only found when read, so they are treated as missing instead of failing getters.
+                return null;
+            }
+            if (cache)
+                this.value = value;
+            return value;
+        }
+    }
+
+	/*
+	 - Parallel processing
+	 */
+
+    /**
+     * Enables or disables parallel processing. While enabled, {@link #reload()} splits the file into chunks of
+     * complete lines that are parsed concurrently, and {@link #save()} serializes groups of entries concurrently,
+     * writing them in order, both using the {@link ForkJoinPool#commonPool() common pool}. This makes loading and
+     * saving large storages much faster on multicore systems, while small files are still processed on a single
+     * thread, as they wouldn't benefit from it. Journals are always processed on a single thread.
+     *
+     * @param parallel Whether to use parallel processing or not.
+     *
+     * @return This {@link FlatStorage}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public FlatStorage useParallelProcessing(boolean parallel) {
+        this.parallel = parallel;
+        return this;
     }
 
-    public final String fixExtension(@NotNull final String path) {
-        return path.endsWith(FILE_EXTENSION) ? path : path + FILE_EXTENSION;
+    /**
+     * Checks whether this {@link FlatStorage} uses parallel processing or not.
+     *
+     * @return {@code true} if this {@link FlatStorage} uses parallel processing, {@code false} otherwise.
+     *
+     * @see #useParallelProcessing(boolean)
+     * @since JSky 1.0.0
+     */
+    public boolean usesParallelProcessing() {
+        return parallel;
     }
 
 	/*
 	 - Saving
 	 */
 
+    // NOTE: Files start with a #<generation> line. Journals start with the generation of the snapshot they apply to.
+
     @Override
-    public boolean save() {
-        if (!getMap().isModified())
-            return true;
+    public synchronized boolean save() {
+        if (!usesJournal() || fullSave) {
+            if (!getMap().isModified() && !fullSave)
+                return true;
+            return saveSnapshot();
+        }
+        final Set<String> changes = getMap().pollChanges();
+        if (changes.isEmpty()) // Modified without tracked changes, for example, through getKeys().
+            return !getMap().isModified() || saveSnapshot();
+        // Cleared before reading the values, so modifications made while saving are saved by the next save.
+        getMap().setModified(false);
+        final StringBuilder toWrite = new StringBuilder();
+        for (String key : changes)
+            if (!appendEntry(toWrite, key, getMap().get(key)))
+                toWrite.append('-').append(key).append('\n');
+        final File journal = getJournalFile();
+        final long journalSize;
+        try (final FileOutputStream out = new FileOutputStream(journal, true)) {
+            final Writer writer = new OutputStreamWriter(out);
+            if (out.getChannel().size() == 0)
+                writer.write("#" + generation + '\n');
+            writer.write(toWrite.toString());
+            writer.flush();
+            if (syncsWrites())
+                out.getChannel().force(false);
+            journalSize = out.getChannel().size();
+        } catch (IOException e) {
+            // Polled changes would be lost, so the next save writes everything.
+            fullSave = true;
+            getMap().setModified(true);
+            return false;
+        }
+        if (journalSize >= compactionThreshold)
+            compact();
+        return true;
+    }
+
+    // Writes a full snapshot of the storage, discarding any journal.
+    private boolean saveSnapshot() {
         if (!setup())
             return false;
-        try (final FileWriter writer = new FileWriter(file)) {
-            for (Entry<String, Object> entry : getEntries()) {
-                final StringBuilder toWrite = new StringBuilder();
-                if (entry.getValue() instanceof final List<?> lst) {
-                    if (lst.isEmpty())
-                        continue;
-                    appendList(toWrite, entry.getKey(), lst);
-                } else
-                    appendSimple(toWrite, entry.getKey(), entry.getValue());
-                if (!toWrite.isEmpty())
-                    writer.write(toWrite.toString());
-            }
+        awaitCompaction();
+        getMap().pollChanges();
+        // Cleared before taking the snapshot, so modifications made while saving are saved by the next save.
+        getMap().setModified(false);
+        final long newGeneration = nextGeneration();
+        try {
+            writeSnapshot(getEntries(), newGeneration);
+            generation = newGeneration;
+            // Journals are older than the snapshot, so they would be ignored even if they couldn't be deleted.
+            getJournalFile().delete();
+            getCompactingJournalFile().delete();
         } catch (IOException e) {
+            fullSave = true;
+            getMap().setModified(true);
             return false;
         }
-        getMap().setModified(false);
+        fullSave = false;
         return true;
     }
 
+    // Snapshots are written atomically, so a crash while saving never leaves a partially written file.
+    private void writeSnapshot(@NotNull Iterable<Entry<String, Object>> entries, long generation) throws IOException {
+        JFiles.writeAtomically(asFile(), syncsWrites(), channel -> {
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel)), BUFFER_SIZE);
+            writer.write("#" + generation + '\n');
+            if (parallel) {
+                writeParallel(writer, entries);
+            } else {
+                final StringBuilder toWrite = new StringBuilder();
+                for (Entry<String, Object> entry : entries) {
+                    toWrite.setLength(0);
+                    if (appendEntry(toWrite, entry.getKey(), entry.getValue()))
+                        writer.append(toWrite);
+                }
+            }
+            writer.flush();
+        });
+        markSaved(asFile());
+    }
+
+    /*
+     * Serializes groups of entries concurrently. Only a limited amount of groups is serialized at once, so memory
+     * usage doesn't depend on the size of the storage, and they are then written in order.
+     */
+    private void writeParallel(@NotNull Writer writer, @NotNull Iterable<Entry<String, Object>> entries) throws IOException {
+        final List<Entry<String, Object>> list = new ArrayList<>();
+        entries.forEach(list::add);
+        final int size = list.size();
+        final int chunks = (size + PARALLEL_CHUNK_ENTRIES - 1) / PARALLEL_CHUNK_ENTRIES;
+        final int batch = Math.max(1, ForkJoinPool.getCommonPoolParallelism()) * 2;
+        for (int first = 0; first < chunks; first += batch) {
+            final List<StringBuilder> serialized = IntStream.range(first, Math.min(first + batch, chunks)).parallel()
+                    .mapToObj(chunk -> {
+                        final StringBuilder toWrite = new StringBuilder();
+                        final int end = Math.min(size, (chunk + 1) * PARALLEL_CHUNK_ENTRIES);
+                        for (int i = chunk * PARALLEL_CHUNK_ENTRIES; i < end; i++)
+                            appendEntry(toWrite, list.get(i).getKey(), list.get(i).getValue());
+                        return toWrite;
+                    }).toList();
+            for (StringBuilder toWrite : serialized)
+                writer.append(toWrite);
+        }
+    }
+
+    /*
+     * Compacts the journal on a background thread. The current journal is renamed, so new saves start a new journal,
+     * and a snapshot of the current contents is written to a temporary file that then replaces the main file.
+     */
+    private void compact() {
+        if (compaction != null && compaction.isAlive())
+            return;
+        final File compacting = getCompactingJournalFile();
+        // Left by a failed compaction. Its changes are included on the current contents.
+        if (compacting.exists()) {
+            saveSnapshot();
+            return;
+        }
+        if (!getJournalFile().renameTo(compacting))
+            return;
+        final long newGeneration = nextGeneration();
+        generation = newGeneration;
+        // Lists are copied too, as the snapshot is written on another thread while this storage keeps being used.
+        final Map<String, Object> snapshot = new LinkedHashMap<>(getMap().getSnapshot());
+        snapshot.replaceAll((key, value) -> value instanceof ArrayList<?> lst ? new ArrayList<>(lst) : value);
+        compaction = new Thread(() -> {
+            try {
+                writeSnapshot(snapshot.entrySet(), newGeneration);
+                compacting.delete();
+            } catch (IOException e) {
+                // The renamed journal is kept, so no data is lost. Next compaction will write a full snapshot.
+                e.printStackTrace();
+            }
+        }, "FlatStorage compaction (" + asFile().getName() + ")");
+        compaction.setDaemon(true);
+        compaction.start();
+    }
+
+    private void awaitCompaction() {
+        final Thread compaction = this.compaction;
+        if (compaction == null)
+            return;
+        try {
+            compaction.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
 	/*
 	 - Saving - Utility
 	 */
 
+    // Appends the line of an entry, returning false if the value can't be stored.
+    private boolean appendEntry(final StringBuilder b, final String key, final Object value) {
+        // Lazy values that were never modified have the same key, so their line is written as is.
+        if (value instanceof final LazyEntry lazy) {
+            b.append(lazy.line).append('\n');
+            return true;
+        }
+        final int start = b.length();
+        if (value instanceof final List<?> lst) {
+            if (!lst.isEmpty())
+                appendList(b, key, lst);
+        } else
+            appendSimple(b, key, value);
+        if (b.length() == start)
+            return false;
+        b.append('\n');
+        return true;
+    }
+
     // NOTE: Number identification character is upper case.
     private char getNumberId(@NotNull final Number n) {
         return n.getClass().getSimpleName().charAt(0);
@@ -196,15 +583,34 @@ public class FlatStorage extends Storage {
 	 */
 
     @Override
-    public boolean reload() {
+    public synchronized boolean reload() {
         if (!setup())
             return false;
+        awaitCompaction();
+        // Entries are loaded on a separate map and then set on a single write.
+        final LinkedHashMap<String, Object> loaded = new LinkedHashMap<>();
         try {
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file)));
-            String line;
-            while ((line = reader.readLine()) != null)
-                parseLine(line);
-            reader.close();
+            final long generation = parallel && asFile().length() > PARALLEL_CHUNK_SIZE
+                    ? loadParallel(asFile(), loaded)
+                    : load(asFile(), loaded);
+            // Journals are applied in order, ignoring those that are older than the snapshot.
+            for (File journal : new File[]{getCompactingJournalFile(), getJournalFile()}) {
+                if (!journal.exists())
+                    continue;
+                final LinkedHashMap<String, Object> changes = new LinkedHashMap<>();
+                if (load(journal, changes) >= generation)
+                    for (Entry<String, Object> change : changes.entrySet())
+                        if (change.getValue() == REMOVED)
+                            loaded.remove(change.getKey());
+                        else
+                            loaded.put(change.getKey(), change.getValue());
+            }
+            this.generation = generation;
+            // Replaced at once, so readers of concurrent maps never see a partially loaded storage.
+            getMap().setContents(loaded);
+            // Loaded entries are already on disk.
+            getMap().pollChanges();
+            getMap().setModified(false);
             return true;
         } catch (IOException e) {
             e.printStackTrace();
@@ -212,57 +618,179 @@ public class FlatStorage extends Storage {
         }
     }
 
-    private boolean parseLine(final String line) {
+    /** Value used to mark entries removed by a journal. */
+    private static final Object REMOVED = new Object();
+
+    // Returns the generation of the file, 0 if it has none.
+    private long load(final File source, final Map<String, Object> target) throws IOException {
+        long generation = 0;
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(source)))) {
+            String line = reader.readLine();
+            if (line != null && line.startsWith("#")) {
+                generation = parseGeneration(line.substring(1), source);
+                line = reader.readLine();
+            }
+            for (; line != null; line = reader.readLine())
+                loadLine(line, target, source);
+        }
+        return generation;
+    }
+
+    private long parseGeneration(final String header, final File source) throws IOException {
+        try {
+            return Long.parseLong(header);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid FlatStorage generation on " + source, e);
+        }
+    }
+
+    /*
+     * Splits the file into chunks that end at a line break, parsing them concurrently into separate maps that are
+     * then merged in order. Line breaks can be searched on raw bytes as they are never part of multibyte characters.
+     */
+    private long loadParallel(final File source, final Map<String, Object> target) throws IOException {
+        final List<long[]> chunks = new ArrayList<>();
+        long generation = 0;
+        try (final FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long start = 0;
+            final ByteBuffer first = ByteBuffer.allocate(1);
+            if (channel.read(first, 0) == 1 && first.get(0) == '#') {
+                start = findLineEnd(channel, 0, size);
+                generation = parseGeneration(readChunk(channel, 1, start).strip(), source);
+            }
+            while (start < size) {
+                final long end = findLineEnd(channel, Math.min(size, start + PARALLEL_CHUNK_SIZE) - 1, size);
+                chunks.add(new long[]{start, end});
+                start = end;
+            }
+            final List<Map<String, Object>> parsed = chunks.parallelStream().map(chunk -> {
+                final Map<String, Object> entries = new LinkedHashMap<>();
+                try {
+                    final String content = readChunk(channel, chunk[0], chunk[1]);
+                    int lineStart = 0;
+                    while (lineStart < content.length()) {
+                        int lineEnd = content.indexOf('\n', lineStart);
+                        if (lineEnd == -1)
+                            lineEnd = content.length();
+                        final int nextStart = lineEnd + 1;
+                        if (lineEnd > lineStart && content.charAt(lineEnd - 1) == '\r')
+                            lineEnd--;
+                        loadLine(content.substring(lineStart, lineEnd), entries, source);
+                        lineStart = nextStart;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return entries;
+            }).toList();
+            parsed.forEach(target::putAll);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return generation;
+    }
+
+    // Returns the position after the first line break found from the provided position, or size if there is none.
+    private long findLineEnd(final FileChannel channel, long position, final long size) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        while (position < size) {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+            if (read <= 0)
+                break;
+            for (int i = 0; i < read; i++)
+                if (buffer.get(i) == '\n')
+                    return position + i + 1;
+            position += read;
+        }
+        return size;
+    }
+
+    /*
+     * Chunks are read into heap buffers instead of being mapped, as mappings are only released when garbage collected,
+     * and mapped files can't be replaced on some platforms, which would make atomic saves fail.
+     */
+    @NotNull
+    private String readChunk(final FileChannel channel, final long start, final long end) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(end - start));
+        while (buffer.hasRemaining())
+            if (channel.read(buffer, start + buffer.position()) <= 0)
+                break;
+        return Charset.defaultCharset().decode(buffer.flip()).toString();
+    }
+
+    // Parse failures of values that aren't lazily loaded are reported as an invalid file.
+    private void loadLine(final String line, final Map<String, Object> target, final File source) throws IOException {
+        try {
+            parseLine(line, target);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Invalid FlatStorage entry on " + source + ": " + line, e);
+        }
+    }
+
+    private boolean parseLine(final String line, final Map<String, Object> target) {
+        if (line.startsWith("-")) {
+            // Removals are only present on journals.
+            target.put(line.substring(1), REMOVED);
+            return true;
+        }
         int separatorIndex = line.indexOf(':');
         if (separatorIndex == -1)
             return false;
-        final String key = line.substring(1, separatorIndex);
+        final boolean isList = line.charAt(0) == '*';
+        final String key = line.substring(isList ? 2 : 1, separatorIndex);
+        if (lazy) {
+            target.put(key, new LazyEntry(line, separatorIndex + 1, cacheLazyValues));
+            return true;
+        }
         final String value = line.substring(separatorIndex + 1);
-        if (line.charAt(0) == '*')
-            return loadLstFromLine(line.charAt(1), key.substring(1), value);
-        else
-            return loadObjFromLine(line.charAt(0), key, value);
+        final Object obj = isList ? parseList(line.charAt(1), value) : parseObj(line.charAt(0), value);
+        if (obj == null)
+            return false;
+        target.put(key, obj);
+        return true;
     }
 
     // Loading - Simple objects //
 
-    private boolean loadObjFromLine(final char type, final String key, final String value) {
+    private Object parseObj(final char type, final String value) {
         return switch (type) {
-            case 's' -> setString(key, value.replace("\\n", "\n"));
-            case 'c' -> setChar(key, value.equals("\\n") ? '\n' : value.charAt(0));
-            case 'b' -> setBoolean(key, value.charAt(0) == 't');
-            case 'u' -> setUUID(key, JStrings.toUUID(value));
-            case 'B' -> setByte(key, Byte.parseByte(value));
-            case 'S' -> setShort(key, Short.parseShort(value));
-            case 'I' -> setInt(key, Integer.parseInt(value));
-            case 'L' -> setLong(key, Long.parseLong(value));
-            case 'F' -> setFloat(key, Float.parseFloat(value));
-            case 'D' -> setDouble(key, Double.parseDouble(value));
+            case 's' -> value.replace("\\n", "\n");
+            case 'c' -> value.equals("\\n") ? '\n' : value.charAt(0);
+            case 'b' -> value.charAt(0) == 't';
+            case 'u' -> JStrings.toUUID(value);
+            case 'B' -> Byte.parseByte(value);
+            case 'S' -> Short.parseShort(value);
+            case 'I' -> Integer.parseInt(value);
+            case 'L' -> Long.parseLong(value);
+            case 'F' -> Float.parseFloat(value);
+            case 'D' -> Double.parseDouble(value);
             default -> null;
-        } != null;
+        };
     }
 
     // Loading - Lists //
 
-    private boolean loadLstFromLine(final char type, final String key, final String value) {
+    private List<?> parseList(final char type, final String value) {
         return switch (type) {
-            case 's' -> loadStringList(key, value);
-            case 'c' -> loadCharList(key, value);
-            case 'b' -> loadBoolList(key, value);
-            case 'u' -> loadList(key, value, JStrings::toUUID);
-            case 'B' -> loadList(key, value, Byte::parseByte);
-            case 'S' -> loadList(key, value, Short::parseShort);
-            case 'I' -> loadList(key, value, Integer::parseInt);
-            case 'L' -> loadList(key, value, Long::parseLong);
-            case 'F' -> loadList(key, value, Float::parseFloat);
-            case 'D' -> loadList(key, value, Double::parseDouble);
-            default -> false;
+            case 's' -> loadStringList(value);
+            case 'c' -> loadCharList(value);
+            case 'b' -> loadBoolList(value);
+            case 'u' -> loadList(value, JStrings::toUUID);
+            case 'B' -> loadList(value, Byte::parseByte);
+            case 'S' -> loadList(value, Short::parseShort);
+            case 'I' -> loadList(value, Integer::parseInt);
+            case 'L' -> loadList(value, Long::parseLong);
+            case 'F' -> loadList(value, Float::parseFloat);
+            case 'D' -> loadList(value, Double::parseDouble);
+            default -> null;
         };
     }
 
-    private <T> boolean loadList(final String key, final String lstStr, Function<String, T> modifier) {
+    private <T> List<T> loadList(final String lstStr, Function<String, T> modifier) {
         final int len = lstStr.length();
-        final LinkedList<T> result = new LinkedList<>();
+        final ArrayList<T> result = new ArrayList<>();
         StringBuilder element = new StringBuilder();
         for (int i = 0; i < len; i++) {
             final char ch = lstStr.charAt(i);
@@ -273,15 +801,14 @@ public class FlatStorage extends Storage {
                 element.append(ch);
         }
         result.add(modifier.apply(element.toString()));
-        getMap().setList(key, result);
-        return true;
+        return result;
     }
 
     // Specific method for strings to handle the '\' character to avoid counting
     // Strings that contain commas as different strings. Also handles the '\n' character.
-    private boolean loadStringList(final String key, final String lstStr) {
+    private List<String> loadStringList(final String lstStr) {
         final int len = lstStr.length();
-        final LinkedList<String> result = new LinkedList<>();
+        final ArrayList<String> result = new ArrayList<>();
         StringBuilder element = new StringBuilder();
         for (int i = 0; i < len; i++) {
             final char ch = lstStr.charAt(i);
@@ -299,15 +826,14 @@ public class FlatStorage extends Storage {
                 element.append(ch);
         }
         result.add(element.toString());
-        setStrings(key, result);
-        return true;
+        return result;
     }
 
     // Specific method for characters, as characters don't use a separator
     // But the '\n' character is stored as two characters.
-    private boolean loadCharList(final String key, final String lstStr) {
+    private List<Character> loadCharList(final String lstStr) {
         final int len = lstStr.length();
-        final LinkedList<Character> result = new LinkedList<>();
+        final ArrayList<Character> result = new ArrayList<>(len);
         for (int i = 0; i < len; i++) {
             final char ch = lstStr.charAt(i);
             if (ch == '\\' && len > i && lstStr.charAt(i + 1) == 'n') {
@@ -316,17 +842,15 @@ public class FlatStorage extends Storage {
             } else
                 result.add(ch);
         }
-        setChars(key, result);
-        return true;
+        return result;
     }
 
     // Specific method for booleans, as booleans don't need a separator.
-    private boolean loadBoolList(final String key, final String lstStr) {
+    private List<Boolean> loadBoolList(final String lstStr) {
         final int len = lstStr.length();
-        final LinkedList<Boolean> result = new LinkedList<>();
+        final ArrayList<Boolean> result = new ArrayList<>(len);
         for (int i = 0; i < len; i++)
             result.add(lstStr.charAt(i) == 't');
-        setBooleans(key, result);
-        return true;
+        return result;
     }
 }
@@ -0,0 +1,532 @@
+package net.codersky.jsky.storage.local;
+
+import net.codersky.jsky.storage.DataMap;
+import net.codersky.jsky.storage.KeyPath;
+import net.codersky.jsky.storage.Storage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link Storage} class designed for very large amounts of keys. Keys are hashed into a fixed number of shards, each
+ * one of them stored on its own {@link FlatStorage} file inside of a folder. Shards are only loaded the first time
+ * that any of their keys is accessed, only {@link DataMap#isModified() modified} shards are written when saving,
+ * and shards that haven't been accessed for the {@link #setIdleTimeout(Duration) idle timeout} are
+ * {@link #evictIdle() evicted} from memory, so memory usage depends on the keys that are actually used instead of
+ * the total amount of keys stored.
+ * <p>
+ * Methods that need every key, such as {@link #getKeys()} or {@link #getEntries()}, load every shard and return a
+ * read-only copy of the keys or entries, so they should be avoided on large storages. Values are stored exactly as
+ * {@link FlatStorage} stores them, so the same types are supported.
+ *
+ * @author xDec0de_
+ * @since JSky 1.0.0
+ */
+public class ShardedStorage extends Storage {
+
+    /** The default time after which unused shards are {@link #evictIdle() evicted}. */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+    private final ShardedMap shards;
+
+    /**
+     * Creates a new {@link ShardedStorage} that stores its shards inside of the provided {@code folder}.
+     *
+     * @param folder The folder to store shards on.
+     * @param shardCount The amount of shards to use. This must not change once the storage has been saved, as keys
+     * would then be hashed into different shards.
+     * @param concurrent Whether shards use a {@link DataMap#isConcurrent() concurrent} {@link DataMap} or not,
+     * allowing this {@link ShardedStorage} to be read from many threads without any external lock.
+     *
+     * @throws IllegalArgumentException if {@code shardCount} is lower than one.
+     * @since JSky 1.0.0
+     */
+    public ShardedStorage(@NotNull File folder, int shardCount, boolean concurrent) {
+        this(new ShardedMap(folder, shardCount, concurrent));
+    }
+
+    public ShardedStorage(@NotNull File folder, int shardCount) {
+        this(folder, shardCount, false);
+    }
+
+    public ShardedStorage(@NotNull String path, int shardCount, boolean concurrent) {
+        this(new File(path), shardCount, concurrent);
+    }
+
+    public ShardedStorage(@NotNull String path, int shardCount) {
+        this(new File(path), shardCount, false);
+    }
+
+    private ShardedStorage(@NotNull ShardedMap shards) {
+        super(shards);
+        this.shards = shards;
+    }
+
+	/*
+	 - Utility
+	 */
+
+    public boolean setup() {
+        return shards.folder.isDirectory() || shards.folder.mkdirs();
+    }
+
+    @NotNull
+    public final File asFolder() {
+        return shards.folder;
+    }
+
+    public final boolean exists() {
+        return shards.folder.isDirectory();
+    }
+
+    public final int getShardCount() {
+        return shards.count;
+    }
+
+    /**
+     * Gets the {@link File} used to store the shard at the provided {@code index}.
+     *
+     * @param index The index of the shard, from zero to {@link #getShardCount()} (Exclusive).
+     *
+     * @return The {@link File} used to store the shard at the provided {@code index}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public final File getShardFile(int index) {
+        return shards.getShardFile(index);
+    }
+
+    /**
+     * Gets the index of the shard that stores the provided {@code key}.
+     *
+     * @param key The key to check.
+     *
+     * @return The index of the shard that stores the provided {@code key}.
+     *
+     * @since JSky 1.0.0
+     */
+    public final int getShardIndex(@NotNull String key) {
+        return shards.getShardIndex(key);
+    }
+
+    /**
+     * Gets the amount of shards that are currently loaded in memory.
+     *
+     * @return The amount of shards that are currently loaded in memory.
+     *
+     * @since JSky 1.0.0
+     */
+    public int getLoadedShards() {
+        return shards.loaded.size();
+    }
+
+	/*
+	 - Eviction
+	 */
+
+    /**
+     * Sets the time after which shards that haven't been accessed are {@link #evictIdle() evicted} from memory. The
+     * {@link #DEFAULT_IDLE_TIMEOUT default} timeout is used unless changed.
+     *
+     * @param idleTimeout The time after which shards that haven't been accessed are evicted.
+     *
+     * @return This {@link ShardedStorage}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public ShardedStorage setIdleTimeout(@NotNull Duration idleTimeout) {
+        shards.idleTimeout = idleTimeout.toNanos();
+        return this;
+    }
+
+    @NotNull
+    public Duration getIdleTimeout() {
+        return Duration.ofNanos(shards.idleTimeout);
+    }
+
+    /**
+     * Removes every shard that hasn't been accessed for the {@link #setIdleTimeout(Duration) idle timeout} from
+     * memory, saving it first if it was modified. Shards that can't be saved are kept in memory. This method is
+     * automatically called by {@link #save()}, so there is usually no need to call it manually.
+     *
+     * @return The amount of shards that were evicted.
+     *
+     * @since JSky 1.0.0
+     */
+    public int evictIdle() {
+        return shards.evictIdle();
+    }
+
+	/*
+	 - Saving & loading
+	 */
+
+    /**
+     * Saves every loaded shard that has been {@link DataMap#isModified() modified} and then
+     * {@link #evictIdle() evicts} idle shards. Shards that aren't modified are not written.
+     *
+     * @return {@code true} if every modified shard was saved, {@code false} otherwise.
+     *
+     * @since JSky 1.0.0
+     */
+    @Override
+    public boolean save() {
+        if (!setup())
+            return false;
+        final boolean saved = shards.save(syncsWrites());
+        evictIdle();
+        return saved;
+    }
+
+    /**
+     * Discards every loaded shard, including any modification that hasn't been saved, so shards are loaded again from
+     * their files the next time that they are accessed.
+     *
+     * @return {@code true} if the storage was set up correctly, {@code false} otherwise.
+     *
+     * @since JSky 1.0.0
+     */
+    @Override
+    public boolean reload() {
+        if (!setup())
+            return false;
+        shards.unloadAll();
+        return true;
+    }
+
+	/*
+	 - Shards
+	 */
+
+    private static final class Shard extends FlatStorage {
+
+        private volatile long lastAccess;
+
+        private Shard(@NotNull File file, boolean concurrent) {
+            super(file, concurrent);
+        }
+
+        @NotNull
+        private DataMap map() {
+            return getMap();
+        }
+    }
+
+    /**
+     * {@link DataMap} that routes every key to the {@link Shard} it belongs to. Routed operations hold the read lock,
+     * so shards can be loaded concurrently, while eviction holds the write lock so no shard is evicted while used.
+     */
+    private static final class ShardedMap extends DataMap {
+
+        private final File folder;
+        private final int count;
+        private final boolean concurrent;
+        private final ConcurrentHashMap<Integer, Shard> loaded = new ConcurrentHashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile long idleTimeout = DEFAULT_IDLE_TIMEOUT.toNanos();
+        private volatile boolean trackChanges = false;
+
+        private ShardedMap(@NotNull File folder, int count, boolean concurrent) {
+            super(false, concurrent);
+            if (count < 1)
+                throw new IllegalArgumentException("ShardedStorage requires at least one shard.");
+            this.folder = folder;
+            this.count = count;
+            this.concurrent = concurrent;
+        }
+
+        // - Shard access - //
+
+        @NotNull
+        private File getShardFile(int index) {
+            return new File(folder, index + FlatStorage.FILE_EXTENSION);
+        }
+
+        private int getShardIndex(@NotNull String key) {
+            final int hash = key.hashCode();
+            return Math.floorMod(hash ^ (hash >>> 16), count);
+        }
+
+        // Must be called while holding the read lock.
+        @NotNull
+        private Shard getShard(int index) {
+            final Shard shard = loaded.computeIfAbsent(index, this::loadShard);
+            shard.lastAccess = System.nanoTime();
+            return shard;
+        }
+
+        @NotNull
+        private Shard loadShard(int index) {
+            final Shard shard = new Shard(getShardFile(index), concurrent);
+            // Saving a shard that failed to load would overwrite its file, so it is better to fail here.
+            if (shard.exists() && !shard.reload())
+                throw new IllegalStateException("Failed to load shard " + shard.asFile().getPath());
+            shard.map().setModified(false);
+            shard.map().trackChanges(trackChanges);
+            return shard;
+        }
+
+        private <R> R onShard(@NotNull String key, @NotNull Function<DataMap, R> action) {
+            lock.readLock().lock();
+            try {
+                return action.apply(getShard(getShardIndex(key)).map());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void forEachShard(@NotNull Consumer<DataMap> action) {
+            lock.readLock().lock();
+            try {
+                for (int i = 0; i < count; i++)
+                    action.accept(getShard(i).map());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @NotNull
+        private <V> Map<Integer, Map<String, V>> groupByShard(@NotNull Map<String, ? extends V> entries) {
+            final Map<Integer, Map<String, V>> groups = new HashMap<>();
+            for (Map.Entry<String, ? extends V> entry : entries.entrySet())
+                groups.computeIfAbsent(getShardIndex(entry.getKey()), i -> new LinkedHashMap<>())
+                        .put(entry.getKey(), entry.getValue());
+            return groups;
+        }
+
+        // - Saving & eviction - //
+
+        private boolean save(boolean syncWrites) {
+            boolean saved = true;
+            lock.readLock().lock();
+            try {
+                for (Shard shard : loaded.values()) {
+                    if (!shard.map().isModified())
+                        continue;
+                    shard.setSyncWrites(syncWrites);
+                    saved &= shard.save();
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return saved;
+        }
+
+        private int evictIdle() {
+            final long now = System.nanoTime();
+            int evicted = 0;
+            lock.writeLock().lock();
+            try {
+                for (Map.Entry<Integer, Shard> entry : loaded.entrySet()) {
+                    final Shard shard = entry.getValue();
+                    if (now - shard.lastAccess < idleTimeout)
+                        continue;
+                    if (shard.map().isModified() && !shard.save())
+                        continue;
+                    loaded.remove(entry.getKey());
+                    evicted++;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return evicted;
+        }
+
+        private void unloadAll() {
+            lock.writeLock().lock();
+            try {
+                loaded.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // - Modification status - //
+
+        @Override
+        public boolean isModified() {
+            for (Shard shard : loaded.values())
+                if (shard.map().isModified())
+                    return true;
+            return false;
+        }
+
+        @NotNull
+        @Override
+        public DataMap setModified(boolean modified) {
+            for (Shard shard : loaded.values())
+                shard.map().setModified(modified);
+            return this;
+        }
+
+        @NotNull
+        @Override
+        public DataMap trackChanges(boolean track) {
+            trackChanges = track;
+            for (Shard shard : loaded.values())
+                shard.map().trackChanges(track);
+            return this;
+        }
+
+        @NotNull
+        @Override
+        public Set<String> pollChanges() {
+            final Set<String> changes = new HashSet<>();
+            for (Shard shard : loaded.values())
+                changes.addAll(shard.map().pollChanges());
+            return changes;
+        }
+
+        @NotNull
+        @Override
+        public Set<String> getDirtyKeys() {
+            final Set<String> dirty = new HashSet<>();
+            for (Shard shard : loaded.values())
+                dirty.addAll(shard.map().getDirtyKeys());
+            return dirty;
+        }
+
+        // - Whole map access, loading every shard - //
+
+        @NotNull
+        @Override
+        public HashMap<String, Object> getInternalMap() {
+            final LinkedHashMap<String, Object> merged = new LinkedHashMap<>();
+            forEachShard(map -> merged.putAll(map.getSnapshot()));
+            return merged;
+        }
+
+        @NotNull
+        @Override
+        public Map<String, Object> getSnapshot() {
+            return Collections.unmodifiableMap(getInternalMap());
+        }
+
+        @NotNull
+        @Override
+        public Set<Map.Entry<String, Object>> getEntries() {
+            return getSnapshot().entrySet();
+        }
+
+        @NotNull
+        @Override
+        public Set<String> getKeys() {
+            return getSnapshot().keySet();
+        }
+
+        @NotNull
+        @Override
+        public DataMap setContents(@NotNull Map<String, ?> contents) {
+            final Map<Integer, Map<String, Object>> groups = groupByShard(contents);
+            lock.readLock().lock();
+            try {
+                for (int i = 0; i < count; i++)
+                    getShard(i).map().setContents(groups.getOrDefault(i, Map.of()));
+            } finally {
+                lock.readLock().unlock();
+            }
+            return this;
+        }
+
+        @NotNull
+        @Override
+        public Set<String> updateTree(@NotNull Map<String, ?> updatedMap, @Nullable List<String> ignored) {
+            final Map<Integer, Map<String, Object>> groups = groupByShard(updatedMap);
+            final Set<String> changes = new LinkedHashSet<>();
+            lock.readLock().lock();
+            try {
+                for (int i = 0; i < count; i++)
+                    changes.addAll(getShard(i).map().updateTree(groups.getOrDefault(i, Map.of()), ignored));
+            } finally {
+                lock.readLock().unlock();
+            }
+            return changes;
+        }
+
+        // - Routed access - //
+
+        @NotNull
+        @Override
+        public DataMap setAll(@NotNull Map<String, ?> entries) {
+            final Map<Integer, Map<String, Object>> groups = groupByShard(entries);
+            lock.readLock().lock();
+            try {
+                for (Map.Entry<Integer, Map<String, Object>> group : groups.entrySet())
+                    getShard(group.getKey()).map().setAll(group.getValue());
+            } finally {
+                lock.readLock().unlock();
+            }
+            return this;
+        }
+
+        @NotNull
+        @Override
+        public Set<Map.Entry<String, Object>> getEntries(@NotNull String key) {
+            return onShard(key, map -> map.getEntries(key));
+        }
+
+        @NotNull
+        @Override
+        public Set<String> getKeys(@NotNull String parent) {
+            return onShard(parent, map -> map.getKeys(parent));
+        }
+
+        @NotNull
+        @Override
+        public DataMap removeEntries(@NotNull String... keys) {
+            for (String key : keys)
+                onShard(key, map -> map.removeEntries(key));
+            return this;
+        }
+
+        @Override
+        public boolean containsKeys(@NotNull String... keys) {
+            for (String key : keys)
+                if (!onShard(key, map -> map.containsKeys(key)))
+                    return false;
+            return true;
+        }
+
+        // Every other getter and setter ends up calling these four methods.
+
+        @Nullable
+        @Override
+        public <T> T get(@NotNull String key, @NotNull Class<T> type) {
+            return onShard(key, map -> map.get(key, type));
+        }
+
+        @Nullable
+        @Override
+        public <T> T get(@NotNull KeyPath path, @NotNull Class<T> type) {
+            return onShard(path.getKey(), map -> map.get(path, type));
+        }
+
+        @NotNull
+        @Override
+        public <T> T set(@NotNull String key, @NotNull T value) {
+            return onShard(key, map -> map.set(key, value));
+        }
+
+        @NotNull
+        @Override
+        public <T> T set(@NotNull KeyPath path, @NotNull T value) {
+            return onShard(path.getKey(), map -> map.set(path, value));
+        }
+    }
+}
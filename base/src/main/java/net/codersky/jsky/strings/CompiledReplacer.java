@@ -0,0 +1,395 @@
+package net.codersky.jsky.strings;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable, precompiled form of a {@link Replacer}. Instances of this class are created with
+ * {@link Replacer#compile()} and build an Aho-Corasick automaton over every key of the {@link Replacer} so that
+ * replacements can be applied on a single left-to-right pass over the input, no matter how many keys there are.
+ * <p>
+ * Just like {@link Replacer}, the instances of the replacement objects are preserved, so if the state of a replacement
+ * changes, the change will be shown the next time the {@link CompiledReplacer} is applied. The
+ * {@link Replacement#toStringValue(Object) string value} of every replacement is computed at most once per call.
+ * <p>
+ * Matching is done in a leftmost-longest fashion: When multiple keys match at the same position, the longest one wins,
+ * and replaced text is never searched again. This means that, unlike {@link Replacer#replaceAt(String)}, the output of
+ * a replacement is never affected by other keys, making results independent of the iteration order of the keys.
+ * Empty keys are ignored.
+ *
+ * @author xDec0de_
+ * @see Replacer#compile()
+ * @since JSky 1.0.0
+ */
+public final class CompiledReplacer {
+
+    /** Minimum buffer size used by {@link #replaceAt(Reader, Writer)}. */
+    private static final int BUFFER_SIZE = 8192;
+    private static final char[] NO_CHARS = new char[0];
+    private static final int[] NO_STATES = new int[0];
+
+    /** The keys of this {@link CompiledReplacer}, indexed by key id. */
+    private final String[] keys;
+    /** The replacement objects of this {@link CompiledReplacer}, indexed by key id. */
+    private final Object[] values;
+    /** The length of the longest key, used to size buffers. */
+    private final int maxKeyLength;
+
+    /*
+     * Automaton. Every array is indexed by state, state 0 being the root. Transitions are stored as sorted
+     * character arrays so they can be binary searched.
+     */
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] failure;
+    /** The longest key id that ends at each state, following failure links, or -1 if none. */
+    private final int[] output;
+    /** The length of the string that each state represents. */
+    private final int[] depth;
+
+    CompiledReplacer(@NotNull Map<String, Object> replacements) {
+        final List<String> keyList = new ArrayList<>(replacements.size());
+        final List<Object> valueList = new ArrayList<>(replacements.size());
+        for (Map.Entry<String, Object> entry : replacements.entrySet()) {
+            if (entry.getKey().isEmpty())
+                continue;
+            keyList.add(entry.getKey());
+            valueList.add(entry.getValue());
+        }
+        this.keys = keyList.toArray(new String[0]);
+        this.values = valueList.toArray();
+
+        // Trie construction
+        final List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        final List<Integer> terminal = new ArrayList<>();
+        final List<Integer> depths = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        terminal.add(-1);
+        depths.add(0);
+        int maxLength = 0;
+        for (int id = 0; id < keys.length; id++) {
+            final String key = keys[id];
+            int state = 0;
+            for (int i = 0; i < key.length(); i++) {
+                final Integer next = trie.get(state).get(key.charAt(i));
+                if (next == null) {
+                    trie.add(new TreeMap<>());
+                    terminal.add(-1);
+                    depths.add(i + 1);
+                    trie.get(state).put(key.charAt(i), trie.size() - 1);
+                    state = trie.size() - 1;
+                } else
+                    state = next;
+            }
+            terminal.set(state, id);
+            maxLength = Math.max(maxLength, key.length());
+        }
+        this.maxKeyLength = maxLength;
+
+        // Flattening
+        final int states = trie.size();
+        this.edgeChars = new char[states][];
+        this.edgeTargets = new int[states][];
+        this.failure = new int[states];
+        this.output = new int[states];
+        this.depth = new int[states];
+        for (int state = 0; state < states; state++) {
+            final TreeMap<Character, Integer> edges = trie.get(state);
+            final char[] chars = edges.isEmpty() ? NO_CHARS : new char[edges.size()];
+            final int[] targets = edges.isEmpty() ? NO_STATES : new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                chars[i] = edge.getKey();
+                targets[i++] = edge.getValue();
+            }
+            edgeChars[state] = chars;
+            edgeTargets[state] = targets;
+            depth[state] = depths.get(state);
+        }
+
+        // Failure and output links, computed breadth-first
+        final ArrayDeque<Integer> queue = new ArrayDeque<>();
+        output[0] = -1;
+        for (int child : edgeTargets[0]) {
+            failure[child] = 0;
+            output[child] = terminal.get(child);
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            for (int i = 0; i < edgeChars[state].length; i++) {
+                final int child = edgeTargets[state][i];
+                final int fail = next(failure[state], edgeChars[state][i]);
+                failure[child] = fail;
+                output[child] = terminal.get(child) != -1 ? terminal.get(child) : output[fail];
+                queue.add(child);
+            }
+        }
+    }
+
+	/*
+	 - Automaton
+	 */
+
+    private int next(int state, final char ch) {
+        while (true) {
+            final int index = Arrays.binarySearch(edgeChars[state], ch);
+            if (index >= 0)
+                return edgeTargets[state][index];
+            if (state == 0)
+                return 0;
+            state = failure[state];
+        }
+    }
+
+    @NotNull
+    private String valueOf(final int id, @NotNull String @NotNull [] cache) {
+        final String cached = cache[id];
+        return cached != null ? cached : (cache[id] = Replacement.toStringValue(values[id]));
+    }
+
+    /**
+     * Applies this {@link CompiledReplacer} to the {@code input}, from {@code from} (Inclusive) to {@code to}
+     * (Exclusive), appending the result to {@code out}. When {@code last} is {@code false}, characters that may still
+     * be part of a match are not processed, and the index of the first of them is returned so that the caller can
+     * provide them again with more input. When {@code last} is {@code true}, the whole range is processed and
+     * {@code to} is returned.
+     */
+    private int apply(@NotNull CharSequence input, int from, int to, boolean last,
+            @NotNull Appendable out, @NotNull String @NotNull [] cache) throws IOException {
+        int written = from;
+        int i = from;
+        int state = 0;
+        int candidate = -1;
+        int candidateStart = 0;
+        while (true) {
+            while (i < to) {
+                state = next(state, input.charAt(i++));
+                final int found = output[state];
+                if (found != -1) {
+                    final int start = i - keys[found].length();
+                    if (candidate == -1 || start <= candidateStart) {
+                        candidate = found;
+                        candidateStart = start;
+                    }
+                }
+                // No future match can start before i - depth, so the candidate is final.
+                if (candidate != -1 && candidateStart < i - depth[state]) {
+                    out.append(input, written, candidateStart).append(valueOf(candidate, cache));
+                    written = i = candidateStart + keys[candidate].length();
+                    state = 0;
+                    candidate = -1;
+                }
+            }
+            if (candidate == -1 || !last)
+                break;
+            out.append(input, written, candidateStart).append(valueOf(candidate, cache));
+            written = i = candidateStart + keys[candidate].length();
+            state = 0;
+            candidate = -1;
+        }
+        final int processed = last ? to : (candidate != -1 ? candidateStart : i - depth[state]);
+        out.append(input, written, processed);
+        return processed;
+    }
+
+	/*
+	 - String replacements
+	 */
+
+    /**
+     * Applies this {@link CompiledReplacer} to the specified {@link String}.
+     *
+     * @param str The {@link String} to apply the replacements to.
+     *
+     * @return A new {@link String} with all replacements applied to it, or {@code str} itself if this
+     * {@link CompiledReplacer} has no keys or {@code str} is empty.
+     *
+     * @throws NullPointerException if {@code str} is {@code null}.
+     * @see #replaceAt(String...)
+     * @see #replaceAtStrings(List)
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public String replaceAt(@NotNull String str) {
+        if (keys.length == 0 || str.isEmpty())
+            return str;
+        return replaceAt(str, new String[keys.length]);
+    }
+
+    @NotNull
+    private String replaceAt(@NotNull String str, @NotNull String @NotNull [] cache) {
+        final StringBuilder builder = new StringBuilder(str.length() + 16);
+        try {
+            apply(str, 0, str.length(), true, builder, cache);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringBuilder never throws IOException
+        }
+        return builder.toString();
+    }
+
+	/*
+	 - Streaming replacements
+	 */
+
+    /**
+     * Applies this {@link CompiledReplacer} to the specified {@link CharSequence}, appending the result to
+     * {@code out}. No intermediate {@link String} is created, so this can be used to write replaced text directly into
+     * any sink, such as a {@link StringBuilder} or a {@link Writer}.
+     *
+     * @param input The {@link CharSequence} to apply the replacements to.
+     * @param out The {@link Appendable} to append the result to.
+     * @param <A> The type of {@link Appendable}.
+     *
+     * @return {@code out}, for convenience.
+     *
+     * @throws NullPointerException if {@code input} or {@code out} are {@code null}.
+     * @throws IOException if {@code out} throws an {@link IOException} while appending.
+     * @see #replaceAt(Reader, Writer)
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public <A extends Appendable> A replaceAt(@NotNull CharSequence input, @NotNull A out) throws IOException {
+        if (keys.length == 0)
+            out.append(input);
+        else
+            apply(input, 0, input.length(), true, out, new String[keys.length]);
+        return out;
+    }
+
+    /**
+     * Applies this {@link CompiledReplacer} to all the contents of {@code reader}, writing the result to
+     * {@code writer}. Input is processed in chunks, so memory usage is bounded by the length of the longest key, not by
+     * the size of the input. Keys spanning across chunks are still replaced.
+     * <p>
+     * Neither {@code reader} nor {@code writer} are closed by this method, and {@code writer} is not flushed.
+     *
+     * @param reader The {@link Reader} to read the input from.
+     * @param writer The {@link Writer} to write the result to.
+     *
+     * @throws NullPointerException if {@code reader} or {@code writer} are {@code null}.
+     * @throws IOException if an I/O error occurs while reading or writing.
+     * @see #replaceAt(CharSequence, Appendable)
+     * @since JSky 1.0.0
+     */
+    public void replaceAt(@NotNull Reader reader, @NotNull Writer writer) throws IOException {
+        final char[] buffer = new char[Math.max(BUFFER_SIZE, maxKeyLength * 2)];
+        final CharBuffer view = CharBuffer.wrap(buffer);
+        final String[] cache = new String[keys.length];
+        int length = 0;
+        while (true) {
+            final int read = reader.read(buffer, length, buffer.length - length);
+            final boolean last = read == -1;
+            if (!last)
+                length += read;
+            if (keys.length == 0) {
+                writer.write(buffer, 0, length);
+                length = 0;
+            } else {
+                final int processed = apply(view, 0, length, last, writer, cache);
+                // Keep the characters that may still be part of a match for the next chunk.
+                System.arraycopy(buffer, processed, buffer, 0, length - processed);
+                length -= processed;
+            }
+            if (last)
+                return;
+        }
+    }
+
+	/*
+	 - List replacements
+	 */
+
+    /**
+     * Applies this {@link CompiledReplacer} to the specified {@link List} of {@link String strings}. The
+     * {@link Replacement#toStringValue(Object) string value} of every replacement is computed at most once for the
+     * whole {@link List}.
+     *
+     * @param list The {@link String} {@link List} to apply the replacements to.
+     *
+     * @return A new <b>modifiable</b> {@link String} {@link List} with the replacements applied to it.
+     *
+     * @throws NullPointerException if {@code list} or any element of it is {@code null}.
+     * @see #replaceAt(String)
+     * @see #replaceAt(String...)
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public List<String> replaceAtStrings(@NotNull List<String> list) {
+        final List<String> result = new ArrayList<>(list.size());
+        final String[] cache = new String[keys.length];
+        for (String str : list)
+            result.add(keys.length == 0 || str.isEmpty() ? str : replaceAt(str, cache));
+        return result;
+    }
+
+    /**
+     * Applies this {@link CompiledReplacer} to the specified {@link String strings}. The
+     * {@link Replacement#toStringValue(Object) string value} of every replacement is computed at most once for all
+     * {@code strings}.
+     *
+     * @param strings The {@link String strings} to apply the replacements to.
+     *
+     * @return A new <b>modifiable</b> {@link String} {@link List} with the replacements applied to it.
+     *
+     * @throws NullPointerException if {@code strings} or any {@link String} is {@code null}.
+     * @see #replaceAt(String)
+     * @see #replaceAtStrings(List)
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public List<String> replaceAt(@NotNull String... strings) {
+        return replaceAtStrings(List.of(strings));
+    }
+
+	/*
+	 - Information
+	 */
+
+    /**
+     * Gets the replacements being used by this {@link CompiledReplacer}. Modifying this map will have no effect.
+     *
+     * @return The replacements being used by this {@link CompiledReplacer}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public Map<String, Object> getReplacementMap() {
+        final HashMap<String, Object> map = new HashMap<>(keys.length);
+        for (int i = 0; i < keys.length; i++)
+            map.put(keys[i], values[i]);
+        return map;
+    }
+
+    /**
+     * Gets the length of the longest key of this {@link CompiledReplacer}.
+     *
+     * @return The length of the longest key, {@code 0} if there are no keys.
+     *
+     * @since JSky 1.0.0
+     */
+    public int getMaxKeyLength() {
+        return maxKeyLength;
+    }
+
+	/*
+	 - Object override
+	 */
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "CompiledReplacer" + getReplacementMap();
+    }
+}
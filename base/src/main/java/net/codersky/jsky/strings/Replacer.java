@@ -4,6 +4,9 @@ import net.codersky.jsky.collections.JCollections;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -115,12 +118,33 @@ public class Replacer implements Cloneable {
         return new Replacer().add(this);
     }
 
+    /**
+     * Compiles this {@link Replacer} into an immutable {@link CompiledReplacer}. A {@link CompiledReplacer} applies
+     * all replacements on a single pass over the input, which is considerably faster than {@link #replaceAt(String)}
+     * for {@link Replacer Replacers} with many replacements that are applied multiple times.
+     * <p>
+     * Changes made to this {@link Replacer} after compiling it won't affect the returned {@link CompiledReplacer}.
+     * The instances of the replacement objects are preserved though, so changes in their state will be reflected.
+     *
+     * @return A new {@link CompiledReplacer} with the current replacements of this {@link Replacer}.
+     *
+     * @see CompiledReplacer
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public CompiledReplacer compile() {
+        return new CompiledReplacer(replacementsMap);
+    }
+
 	/*
 	 - String replacements
 	 */
 
     /**
-     * Applies this {@link Replacer} to the specified {@link String}.
+     * Applies this {@link Replacer} to the specified {@link String}. Keys are replaced one by one, in the order of the
+     * {@link #getReplacementMap() replacement map}, so text produced by a replacement can be matched by later keys.
+     * {@link #compile() Compiled} replacements and the streaming overloads, such as
+     * {@link #replaceAt(CharSequence, Appendable)}, use the semantics of {@link CompiledReplacer} instead.
      *
      * @param str The {@link String} to apply the replacements to.
      *
@@ -151,6 +175,60 @@ public class Replacer implements Cloneable {
         return res.toString();
     }
 
+	/*
+	 - Streaming replacements
+	 */
+
+    /**
+     * Applies this {@link Replacer} to the specified {@link CharSequence}, appending the result to {@code out}.
+     * This method {@link #compile() compiles} this {@link Replacer} on every call, so if the same replacements are
+     * going to be applied multiple times, prefer {@link CompiledReplacer#replaceAt(CharSequence, Appendable)}.
+     * <p>
+     * Replacements are applied with the semantics of a {@link CompiledReplacer}: keys are matched leftmost-longest
+     * and replaced text is never searched again. This differs from {@link #replaceAt(String)} when keys overlap, for
+     * example, with keys {@code "%ab%"} and {@code "b"}, this method replaces {@code "%ab%"} on {@code "a%ab%"}, while
+     * {@link #replaceAt(String)} may replace {@code "b"} first, depending on the order of the keys.
+     *
+     * @param input The {@link CharSequence} to apply the replacements to.
+     * @param out The {@link Appendable} to append the result to.
+     * @param <A> The type of {@link Appendable}.
+     *
+     * @return {@code out}, for convenience.
+     *
+     * @throws NullPointerException if {@code input} or {@code out} are {@code null}.
+     * @throws IOException if {@code out} throws an {@link IOException} while appending.
+     * @see #replaceAt(Reader, Writer)
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public <A extends Appendable> A replaceAt(@NotNull CharSequence input, @NotNull A out) throws IOException {
+        return compile().replaceAt(input, out);
+    }
+
+    /**
+     * Applies this {@link Replacer} to all the contents of {@code reader}, writing the result to {@code writer}.
+     * Memory usage is bounded by the length of the longest key, not by the size of the input, making this method
+     * suitable for large files. This method {@link #compile() compiles} this {@link Replacer} on every call, so if
+     * the same replacements are going to be applied multiple times, prefer
+     * {@link CompiledReplacer#replaceAt(Reader, Writer)}.
+     * <p>
+     * Replacements are applied with the semantics of a {@link CompiledReplacer}, which may differ from the ones of
+     * {@link #replaceAt(String)} when keys overlap, as explained on {@link #replaceAt(CharSequence, Appendable)}.
+     * <p>
+     * Neither {@code reader} nor {@code writer} are closed by this method, and {@code writer} is not flushed.
+     *
+     * @param reader The {@link Reader} to read the input from.
+     * @param writer The {@link Writer} to write the result to.
+     *
+     * @throws NullPointerException if {@code reader} or {@code writer} are {@code null}.
+     * @throws IOException if an I/O error occurs while reading or writing.
+     * @see #replaceAt(CharSequence, Appendable)
+     * @since JSky 1.0.0
+     */
+    public void replaceAt(@NotNull Reader reader, @NotNull Writer writer) throws IOException {
+        compile().replaceAt(reader, writer);
+    }
+
 	/*
 	 - List replacements
 	 */
@@ -189,6 +267,21 @@ public class Replacer implements Cloneable {
         return replaceAtStrings(List.of(strings));
     }
 
+    /**
+     * Gets the replacement object that this {@link Replacer} uses for the specified {@code key}. Unlike
+     * {@link #getReplacementMap()}, this method doesn't copy the internal map.
+     *
+     * @param key The text to get the replacement of.
+     *
+     * @return The replacement of {@code key}, {@code null} if this {@link Replacer} doesn't replace {@code key}.
+     *
+     * @since JSky 1.0.0
+     */
+    @Nullable
+    public Object getReplacement(@NotNull String key) {
+        return replacementsMap.get(key);
+    }
+
     /**
      * Gets the replacements being used by this {@link Replacer}. Modifying this list will have no effect, it can be
      * used for debugging or to create your own {@link Replacer} type while being able to {@link #clone()} it. This can
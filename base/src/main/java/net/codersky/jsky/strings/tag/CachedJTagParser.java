@@ -0,0 +1,185 @@
+package net.codersky.jsky.strings.tag;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe parser that caches the results of {@link JTagParser#parseAll(String, int, int)} by input, so that inputs
+ * that are parsed often, such as message templates, skip parsing entirely. Instances are created with
+ * {@link JTagParser#cached(int)} or {@link JTagParser#cached(int, int)}.
+ * <p>
+ * The cache is bounded, evicting the least recently used entry once the maximum amount of entries is exceeded. Results
+ * are shared between every caller that parses the same input, which is safe as neither {@link JTagParseAllResult}
+ * nor {@link JTag} can be modified.
+ * <p>
+ * Hits, misses and evictions are counted, which can be used to tune the size of the cache.
+ *
+ * @author xDec0de_
+ * @see JTagParser#cached(int)
+ * @since JSky 1.0.0
+ */
+public final class CachedJTagParser {
+
+    private final int maxEntries;
+    private final int maxDepth;
+    private final LinkedHashMap<String, JTagParseAllResult> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    CachedJTagParser(final int maxEntries, final int maxDepth) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException("maxEntries must be positive, got " + maxEntries);
+        this.maxEntries = maxEntries;
+        this.maxDepth = maxDepth;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JTagParseAllResult> eldest) {
+                if (size() <= CachedJTagParser.this.maxEntries)
+                    return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+	/*
+	 - Parsing
+	 */
+
+    /**
+     * Parses all tags of the provided {@code input}, just like {@link JTagParser#parseAll(String, int, int)} does,
+     * returning a cached result if the same {@code input} has already been parsed by this {@link CachedJTagParser}.
+     * <p>
+     * Parsing happens outside any lock, so multiple threads parsing different inputs never wait for each other.
+     *
+     * @param input The {@link String} to parse.
+     *
+     * @return The shared {@link JTagParseAllResult} of {@code input}. Must not be modified.
+     *
+     * @throws NullPointerException if {@code input} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public JTagParseAllResult parseAll(@NotNull final String input) {
+        Objects.requireNonNull(input);
+        JTagParseAllResult result;
+        synchronized (cache) {
+            result = cache.get(input);
+        }
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+        misses.increment();
+        result = JTagParser.parseAll(input, 0, maxDepth);
+        synchronized (cache) {
+            final JTagParseAllResult previous = cache.putIfAbsent(input, result);
+            return previous == null ? result : previous;
+        }
+    }
+
+	/*
+	 - Cache management
+	 */
+
+    /**
+     * Removes every cached result from this {@link CachedJTagParser}. Counters are not reset.
+     *
+     * @since JSky 1.0.0
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Gets the amount of results that are currently cached.
+     *
+     * @return The amount of results that are currently cached.
+     *
+     * @since JSky 1.0.0
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Gets the maximum amount of results that this {@link CachedJTagParser} can hold before evicting them.
+     *
+     * @return The maximum amount of cached results.
+     *
+     * @since JSky 1.0.0
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Gets the maximum depth of nested tags used by this {@link CachedJTagParser}.
+     *
+     * @return The maximum depth of nested tags.
+     *
+     * @see JTagParser#parseAll(String, int, int)
+     * @since JSky 1.0.0
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+	/*
+	 - Statistics
+	 */
+
+    /**
+     * Gets the amount of times that a cached result was returned.
+     *
+     * @return The amount of cache hits.
+     *
+     * @since JSky 1.0.0
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the amount of times that an input had to be parsed because it wasn't cached.
+     *
+     * @return The amount of cache misses.
+     *
+     * @since JSky 1.0.0
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the amount of results that were removed from the cache to respect the {@link #getMaxEntries() limit}.
+     *
+     * @return The amount of evictions.
+     *
+     * @since JSky 1.0.0
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+	/*
+	 - Object override
+	 */
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "CachedJTagParser{size=" + size() + ", maxEntries=" + maxEntries + ", hits=" + getHits()
+                + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "}";
+    }
+}
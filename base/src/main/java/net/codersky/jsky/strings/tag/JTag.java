@@ -8,20 +8,29 @@ import java.util.Objects;
 
 public class JTag {
 
-    private final String raw;
+    /** The raw text of this tag is the [rawStart, rawEnd) range of rawSource, which may be shared with other tags. */
+    private final String rawSource;
+    private final int rawStart;
+    private final int rawEnd;
     private final String name;
     private final String content;
     private final JTag[] children;
 
     JTag(@NotNull String raw, @NotNull String name, @NotNull String content, @NotNull JTag @NotNull [] children) {
-        this.raw = "<" + Objects.requireNonNull(raw) + ">";
+        this("<" + Objects.requireNonNull(raw) + ">", 0, raw.length() + 2, name, content, children);
+    }
+
+    JTag(@NotNull String rawSource, int rawStart, int rawEnd, @NotNull String name, @NotNull String content, @NotNull JTag @NotNull [] children) {
+        this.rawSource = rawSource;
+        this.rawStart = rawStart;
+        this.rawEnd = rawEnd;
         this.name = Objects.requireNonNull(name);
         this.content = Objects.requireNonNull(content);
         this.children = Objects.requireNonNull(children);
     }
 
     public JTag(@NotNull String name, @NotNull String content, @NotNull JTag @NotNull [] children) {
-        this(rawWithChildren(name, content, children), name, content, children);
+        this(rawWithChildren(name, content, children), name, content, children.clone());
     }
 
     private static String rawWithChildren(String name, String content, JTag[] children) {
@@ -49,9 +58,36 @@ public class JTag {
         return content;
     }
 
+    /**
+     * Gets the children of this {@link JTag}. The returned array is a copy, as tags may be shared, for example, by a
+     * {@link CachedJTagParser}. Use {@link #getChildCount()} and {@link #getChild(int)} to avoid the copy.
+     *
+     * @return A new array with the children of this {@link JTag}.
+     *
+     * @since JSky 1.0.0
+     */
     @NotNull
     public JTag @NotNull [] getChildren() {
-        return children;
+        return children.length == 0 ? children : children.clone();
+    }
+
+    public int getChildCount() {
+        return children.length;
+    }
+
+    /**
+     * Gets the child of this {@link JTag} at the specified {@code index}.
+     *
+     * @param index The index of the child to get.
+     *
+     * @return The child at the specified {@code index}.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public JTag getChild(final int index) {
+        return children[index];
     }
 
 	/*
@@ -60,7 +96,7 @@ public class JTag {
 
     @NotNull
     public String getRaw() {
-        return this.raw;
+        return rawSource.substring(rawStart, rawEnd);
     }
 
 	/*
@@ -76,7 +112,7 @@ public class JTag {
                 return false;
             if (!Objects.equals(getContent(), other.getContent()))
                 return false;
-            return Arrays.equals(getChildren(), other.getChildren());
+            return Arrays.equals(children, other.children);
         }
         return false;
     }
@@ -92,10 +128,10 @@ public class JTag {
     }
 
     private String childrenToStr() {
-        if (getChildren().length == 0)
+        if (children.length == 0)
             return "";
         final StringBuilder children = new StringBuilder();
-        for (final JTag child : getChildren())
+        for (final JTag child : this.children)
             (children.isEmpty() ? children : children.append(", ")).append(child);
         return children.toString();
     }
@@ -4,6 +4,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -88,6 +89,6 @@ public class JTagParseAllResult implements Iterable<Object> {
     @NotNull
     @Override
     public Iterator<Object> iterator() {
-        return info.iterator();
+        return Collections.unmodifiableList(info).iterator();
     }
 }
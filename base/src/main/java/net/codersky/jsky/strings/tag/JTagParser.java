@@ -1,10 +1,9 @@
 package net.codersky.jsky.strings.tag;
 
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * Utility class used to {@link #parse(String) parse} input with JSky's nested tags system.
@@ -16,6 +15,20 @@ public final class JTagParser {
 
     public static final JTag[] EMPTY_TAG_ARRAY = new JTag[0];
 
+    /**
+     * The maximum depth of nested tags used by the methods that don't take one, such as {@link #parse(String)},
+     * {@link #parseTree(CharSequence)} or {@link #visit(CharSequence, JTagVisitor)}. Tags nested deeper than this are
+     * treated as content of their parent tag.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 128;
+
+    /**
+     * The maximum amount of characters parsed by the methods that don't take a limit, such as {@link #parse(String)},
+     * {@link #parseTree(CharSequence)} or {@link #visit(CharSequence, JTagVisitor)}. Characters past this limit are
+     * treated as text, so untrusted input can't make parsing arbitrarily expensive.
+     */
+    public static final int DEFAULT_MAX_LENGTH = 1 << 20;
+
 	/*
 	 - Parse one
 	 */
@@ -25,22 +38,40 @@ public final class JTagParser {
     }
 
     public static @NotNull JTagParseResult parse(@NotNull final String input, final int fromIndex) {
-        return parse(input, fromIndex, Integer.MAX_VALUE);
+        return parse(input, fromIndex, DEFAULT_MAX_DEPTH);
     }
 
     public static @NotNull JTagParseResult parse(@NotNull final String input, final int fromIndex, final int maxDepth) {
-        final int openBracket = findOpenBracket(input, fromIndex);
-        if (openBracket == -1)
-            return new JTagParseResult(fromIndex < input.length() ? unescape(input.substring(fromIndex)) : "");
-        final int closeBracket = findCloseBracket(input, openBracket);
-        if (closeBracket == -1)
-            return new JTagParseResult(unescape(input));
-        final String remaining = closeBracket < input.length() ? unescape(input.substring(closeBracket)) : "";
-        final JTag tag = parseTag(input.substring(openBracket + 1, closeBracket - 1), maxDepth);
-        if (tag == null)
-            return new JTagParseResult(input, null, "");
-        final String skipped = fromIndex < openBracket ? unescape(input.substring(fromIndex, openBracket)) : null;
-        return new JTagParseResult(skipped, tag, remaining);
+        return parse(input, fromIndex, maxDepth, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Parses the first tag of the provided {@code input}, starting at {@code fromIndex}. Parsing stops as soon as the
+     * first tag is closed. Both the time and the memory used are linear on the amount of characters parsed, no matter
+     * how nested they are, as the {@link JTag#getRaw() raw} text of every tag is only created when requested.
+     * Overloads that don't take {@code maxDepth} or {@code maxLength} use {@link #DEFAULT_MAX_DEPTH} and
+     * {@link #DEFAULT_MAX_LENGTH}.
+     *
+     * @param input The {@link String} to parse.
+     * @param fromIndex The index to start parsing from.
+     * @param maxDepth The maximum depth of nested tags. Tags nested deeper than this are treated as content of their
+     * parent tag, {@code 0} meaning that only top level tags are parsed.
+     * @param maxLength The maximum amount of characters, starting at {@code fromIndex}, that are parsed. Characters
+     * past this limit are treated as text, so this can be used to put a budget on untrusted input.
+     *
+     * @return A {@link JTagParseResult} with the first tag found, if any.
+     *
+     * @throws NullPointerException if {@code input} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    public static @NotNull JTagParseResult parse(@NotNull final String input, final int fromIndex, final int maxDepth, final int maxLength) {
+        final String str = fromIndex < input.length() ? input.substring(fromIndex) : "";
+        final JTagTree tree = new JTagTree(str, maxDepth, maxLength, true);
+        final int tag = tree.getFirstRoot();
+        if (tag == -1)
+            return new JTagParseResult(unescape(str, 0, str.length()));
+        final String skipped = unescape(str, 0, tree.getStart(tag));
+        return new JTagParseResult(skipped, tree.toTag(tag), unescape(str, tree.getEnd(tag), str.length()));
     }
 
 	/*
@@ -52,110 +83,302 @@ public final class JTagParser {
     }
 
     public static @NotNull JTagParseAllResult parseAll(@NotNull final String input, final int fromIndex) {
-        return parseAll(input, fromIndex, Integer.MAX_VALUE);
+        return parseAll(input, fromIndex, DEFAULT_MAX_DEPTH);
     }
 
     public static @NotNull JTagParseAllResult parseAll(@NotNull final String input, final int fromIndex, final int maxDepth) {
-        final JTagParseAllResult all = new JTagParseAllResult();
-        JTagParseResult one = parse(input, fromIndex, maxDepth);
-        while (true) {
-            if (!one.getSkipped().isEmpty())
-                all.add(one.getSkipped());
-            if (one.getTag() != null)
-                all.add(one.getTag());
-            if (one.getRemaining().isBlank())
-                break;
-            one = parse(one.getRemaining(), 0, maxDepth);
-        }
-        return all;
+        return parseAll(input, fromIndex, maxDepth, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Parses all tags of the provided {@code input}, starting at {@code fromIndex}. Parsing is done on a single pass,
+     * and both the time and the memory used are linear on the amount of characters parsed, no matter how nested they
+     * are, as the {@link JTag#getRaw() raw} text of every tag is only created when requested. Blank text after the
+     * last tag is ignored. Overloads that don't take {@code maxDepth} or {@code maxLength} use
+     * {@link #DEFAULT_MAX_DEPTH} and {@link #DEFAULT_MAX_LENGTH}.
+     *
+     * @param input The {@link String} to parse.
+     * @param fromIndex The index to start parsing from.
+     * @param maxDepth The maximum depth of nested tags. Tags nested deeper than this are treated as content of their
+     * parent tag, {@code 0} meaning that only top level tags are parsed.
+     * @param maxLength The maximum amount of characters, starting at {@code fromIndex}, that are parsed. Characters
+     * past this limit are treated as text, so this can be used to put a budget on untrusted input.
+     *
+     * @return A {@link JTagParseAllResult} with all the text and tags found.
+     *
+     * @throws NullPointerException if {@code input} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    public static @NotNull JTagParseAllResult parseAll(@NotNull final String input, final int fromIndex, final int maxDepth, final int maxLength) {
+        final String str = fromIndex < input.length() ? input.substring(fromIndex) : "";
+        return new JTagTree(str, maxDepth, maxLength, false).toParseAllResult(false);
     }
 
 	/*
-	 - Internal tag parsing
+	 - Caching
 	 */
 
-    private static @Nullable JTag parseTag(@NotNull final String tagContent, final int maxDepth) {
-        if (!tagContent.contains(":"))
-            return tagContent.isBlank() ? null : new JTag(tagContent, unescape(tagContent), "", EMPTY_TAG_ARRAY);
-        final int colonPos = tagContent.indexOf(':');
-        final String name = unescape(tagContent.substring(0, colonPos).trim());
-        final String rawContent = tagContent.substring(colonPos + 1);
-        if (name.isBlank() || rawContent.isBlank())
-            return null;
-        if (maxDepth <= 0)
-            return new JTag(tagContent, name, unescape(rawContent), EMPTY_TAG_ARRAY);
-        final List<JTag> children = new ArrayList<>();
-        final String extracted = extractContent(rawContent, children, maxDepth - 1);
-        return new JTag(tagContent, name, unescape(extracted), children.toArray(EMPTY_TAG_ARRAY));
-    }
-
-    private static @NotNull String extractContent(@NotNull final String content, @NotNull final List<JTag> children, final int remainingDepth) {
-        final StringBuilder result = new StringBuilder();
-        int i = 0;
-        while (i < content.length()) {
-            final int openBracket = findOpenBracket(content, i);
-            if (openBracket == -1) {
-                result.append(content.substring(i));
-                break;
-            }
-            result.append(content, i, openBracket);
-            final int closeBracket = findCloseBracket(content, openBracket);
-            if (closeBracket == -1) {
-                result.append(content.substring(openBracket));
-                break;
-            }
-            final String childContent = content.substring(openBracket + 1, closeBracket - 1);
-            final JTag childTag = parseTag(childContent, remainingDepth);
-            if (childTag != null)
-                children.add(childTag);
-            else
-                result.append(content, openBracket, closeBracket);
-            i = closeBracket;
-        }
-        return result.toString();
+    /**
+     * Creates a new {@link CachedJTagParser} that caches up to {@code maxEntries} results of
+     * {@link #parseAll(String)}, using {@link #DEFAULT_MAX_DEPTH} as the maximum depth of nested tags.
+     *
+     * @param maxEntries The maximum amount of results to cache, must be positive.
+     *
+     * @return A new {@link CachedJTagParser}.
+     *
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive.
+     * @see CachedJTagParser
+     * @since JSky 1.0.0
+     */
+    public static @NotNull CachedJTagParser cached(final int maxEntries) {
+        return cached(maxEntries, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Creates a new {@link CachedJTagParser} that caches up to {@code maxEntries} results of
+     * {@link #parseAll(String, int, int)}, using {@code maxDepth} as the maximum depth of nested tags.
+     *
+     * @param maxEntries The maximum amount of results to cache, must be positive.
+     * @param maxDepth The maximum depth of nested tags.
+     *
+     * @return A new {@link CachedJTagParser}.
+     *
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive.
+     * @see CachedJTagParser
+     * @since JSky 1.0.0
+     */
+    public static @NotNull CachedJTagParser cached(final int maxEntries, final int maxDepth) {
+        return new CachedJTagParser(maxEntries, maxDepth);
     }
 
 	/*
-	 - Bracket utility
+	 - Parse tree
 	 */
 
-    private static int findOpenBracket(@NotNull final String str, final int fromIndex) {
-        int i = fromIndex;
-        while ((i = str.indexOf('<', i)) != -1) {
-            int escapeChars = 0;
-            int pos = i - 1;
-            while (pos >= 0 && str.charAt(pos) == '\\') {
-                escapeChars++;
-                pos--;
-            }
-            if (escapeChars % 2 == 0)
-                return i;
-            i++;
-        }
-        return -1;
+    /**
+     * Parses the tags of the provided {@code input} into a {@link JTagTree}. This is equivalent to calling
+     * {@link #parseTree(CharSequence, int, int)} with {@link #DEFAULT_MAX_DEPTH} and {@link #DEFAULT_MAX_LENGTH}.
+     *
+     * @param input The {@link CharSequence} to parse.
+     *
+     * @return A new {@link JTagTree} with the offsets of every tag found on {@code input}.
+     *
+     * @throws NullPointerException if {@code input} is {@code null}.
+     * @see JTagTree
+     * @since JSky 1.0.0
+     */
+    public static @NotNull JTagTree parseTree(@NotNull final CharSequence input) {
+        return parseTree(input, DEFAULT_MAX_DEPTH, DEFAULT_MAX_LENGTH);
     }
 
-    private static int findCloseBracket(@NotNull final String input, final int openPos) {
-        int depth = 1;
-        int pos = openPos + 1;
-        while (pos < input.length() && depth > 0) {
-            final char c = input.charAt(pos);
-            if (c == '\\') {
-                pos += 2;
-                continue;
+    /**
+     * Parses the tags of the provided {@code input} into a {@link JTagTree}. Parsing is done on a single pass and
+     * only stores the offsets of the tags found, so it is linear on the length of {@code input} and no
+     * {@link String Strings} are created until the information of a tag is requested. This is equivalent to calling
+     * {@link #parseTree(CharSequence, int, int)} with {@link #DEFAULT_MAX_LENGTH} as {@code maxLength}.
+     *
+     * @param input The {@link CharSequence} to parse.
+     * @param maxDepth The maximum depth of nested tags. Tags nested deeper than this are treated as content of their
+     * parent tag, {@code 0} meaning that only top level tags are parsed.
+     *
+     * @return A new {@link JTagTree} with the offsets of every tag found on {@code input}.
+     *
+     * @throws NullPointerException if {@code input} is {@code null}.
+     * @see JTagTree
+     * @since JSky 1.0.0
+     */
+    public static @NotNull JTagTree parseTree(@NotNull final CharSequence input, final int maxDepth) {
+        return parseTree(input, maxDepth, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Parses the tags of the provided {@code input} into a {@link JTagTree}, only parsing up to {@code maxLength}
+     * characters. Characters past this limit are treated as text, so this can be used to put a budget on untrusted
+     * input.
+     *
+     * @param input The {@link CharSequence} to parse.
+     * @param maxDepth The maximum depth of nested tags. Tags nested deeper than this are treated as content of their
+     * parent tag, {@code 0} meaning that only top level tags are parsed.
+     * @param maxLength The maximum amount of characters to parse.
+     *
+     * @return A new {@link JTagTree} with the offsets of every tag found on {@code input}.
+     *
+     * @throws NullPointerException if {@code input} is {@code null}.
+     * @see #parseTree(CharSequence, int)
+     * @since JSky 1.0.0
+     */
+    public static @NotNull JTagTree parseTree(@NotNull final CharSequence input, final int maxDepth, final int maxLength) {
+        return new JTagTree(input, maxDepth, maxLength, false);
+    }
+
+	/*
+	 - Visitor
+	 */
+
+    /**
+     * Parses the provided {@code input}, reporting every tag and text range found to the provided {@code visitor}.
+     * This is equivalent to calling {@link #visit(CharSequence, JTagVisitor, int, int)} with
+     * {@link #DEFAULT_MAX_DEPTH} and {@link #DEFAULT_MAX_LENGTH}.
+     *
+     * @param input The {@link CharSequence} to parse.
+     * @param visitor The {@link JTagVisitor} to report to.
+     *
+     * @throws NullPointerException if {@code input} or {@code visitor} are {@code null}.
+     * @see JTagVisitor
+     * @since JSky 1.0.0
+     */
+    public static void visit(@NotNull final CharSequence input, @NotNull final JTagVisitor visitor) {
+        visit(input, visitor, DEFAULT_MAX_DEPTH, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Parses the provided {@code input}, reporting every tag and text range to the provided {@code visitor} as soon
+     * as they are found. Parsing is done on a single pass with no intermediate {@link JTagTree}, and no {@link JTag},
+     * {@link JTagParseAllResult} nor {@link String} is created in the process. This is equivalent to calling
+     * {@link #visit(CharSequence, JTagVisitor, int, int)} with {@link #DEFAULT_MAX_LENGTH} as {@code maxLength}.
+     *
+     * @param input The {@link CharSequence} to parse.
+     * @param visitor The {@link JTagVisitor} to report to.
+     * @param maxDepth The maximum depth of nested tags. Tags nested deeper than this are reported as text of their
+     * parent tag, {@code 0} meaning that only top level tags are reported.
+     *
+     * @throws NullPointerException if {@code input} or {@code visitor} are {@code null}.
+     * @see JTagVisitor
+     * @since JSky 1.0.0
+     */
+    public static void visit(@NotNull final CharSequence input, @NotNull final JTagVisitor visitor, final int maxDepth) {
+        visit(input, visitor, maxDepth, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Parses the provided {@code input}, reporting every tag and text range to the provided {@code visitor} as soon
+     * as they are found. Parsing is done on a single pass with no intermediate {@link JTagTree}, and no {@link JTag},
+     * {@link JTagParseAllResult} nor {@link String} is created in the process.
+     * <p>
+     * Tags follow the same rules as {@link #parseTree(CharSequence, int, int)}, but a tag is reported as opened once
+     * the first non-whitespace character of its content is found, before knowing if it will be closed. Because of
+     * this, tags that are still open when the input (Or {@code maxLength}) ends are closed there. Text may be
+     * reported in more than one consecutive range, for example, when a {@code '<'} turns out not to open a tag.
+     *
+     * @param input The {@link CharSequence} to parse.
+     * @param visitor The {@link JTagVisitor} to report to.
+     * @param maxDepth The maximum depth of nested tags. Tags nested deeper than this are reported as text of their
+     * parent tag, {@code 0} meaning that only top level tags are reported.
+     * @param maxLength The maximum amount of characters to parse. Characters past this limit are reported as text.
+     *
+     * @throws NullPointerException if {@code input} or {@code visitor} are {@code null}.
+     * @see JTagVisitor
+     * @since JSky 1.0.0
+     */
+    public static void visit(@NotNull final CharSequence input, @NotNull final JTagVisitor visitor, final int maxDepth, final int maxLength) {
+        Objects.requireNonNull(visitor);
+        // Start, colon and state of every open bracket, brackets nested deeper than maxDepth are just counted.
+        int[] stack = new int[24];
+        int depth = 0;
+        // Start of the text that hasn't been reported yet.
+        int pos = 0;
+        final int length = Math.min(input.length(), Math.max(maxLength, 0));
+        for (int i = 0; i < length; i++) {
+            final char ch = input.charAt(i);
+            final int top = (depth <= maxDepth ? depth : maxDepth + 1) - 1;
+            // A tag is only opened once its content is known not to be blank.
+            if (top != -1 && stack[top * 3 + 2] == PENDING && (ch != '>' || depth != top + 1) && !Character.isWhitespace(ch)) {
+                final int start = stack[top * 3];
+                final int colon = stack[top * 3 + 1];
+                visitor.onTagOpen(start, JTagTree.trimStart(input, start + 1, colon), JTagTree.trimEnd(input, start + 1, colon), top);
+                stack[top * 3 + 2] = OPEN;
+                pos = colon + 1;
             }
-            if (c == '<')
+            if (ch == '\\') {
+                i++;
+            } else if (ch == '<') {
+                if (depth <= maxDepth) {
+                    if (isReported(stack, depth)) {
+                        if (pos < i)
+                            visitor.onText(pos, i);
+                        pos = i;
+                    }
+                    if (depth * 3 == stack.length)
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    stack[depth * 3] = i;
+                    stack[depth * 3 + 1] = -1;
+                    stack[depth * 3 + 2] = NAME;
+                }
                 depth++;
-            else if (c == '>')
+            } else if (ch == ':' && depth != 0 && depth - 1 <= maxDepth && stack[(depth - 1) * 3 + 1] == -1) {
+                final int frame = (depth - 1) * 3;
+                final int start = stack[frame];
+                stack[frame + 1] = i;
+                final boolean blankName = JTagTree.isBlank(input, JTagTree.trimStart(input, start + 1, i), JTagTree.trimEnd(input, start + 1, i));
+                stack[frame + 2] = !blankName && isReported(stack, depth - 1) ? PENDING : IGNORED;
+            } else if (ch == '>' && depth != 0) {
                 depth--;
-            pos++;
+                if (depth <= maxDepth) {
+                    final int start = stack[depth * 3];
+                    final int state = stack[depth * 3 + 2];
+                    if (state == OPEN) {
+                        if (pos < i)
+                            visitor.onText(pos, i);
+                        visitor.onTagClose(i + 1, depth);
+                        pos = i + 1;
+                    } else if (state == NAME && isReported(stack, depth) && !JTagTree.isBlank(input, start + 1, i)) {
+                        visitor.onTagOpen(start, start + 1, i, depth);
+                        visitor.onTagClose(i + 1, depth);
+                        pos = i + 1;
+                    }
+                    // Other brackets are just text, which is reported later as pos wasn't moved.
+                }
+            }
+        }
+        // Tags that were already reported can't be treated as text anymore, so they are closed at the end.
+        for (int frame = (depth <= maxDepth ? depth : maxDepth + 1) - 1; frame >= 0; frame--) {
+            if (stack[frame * 3 + 2] != OPEN)
+                continue;
+            if (pos < length)
+                visitor.onText(pos, length);
+            visitor.onTagClose(length, frame);
+            pos = length;
         }
-        return depth == 0 ? pos : -1;
+        if (pos < input.length())
+            visitor.onText(pos, input.length());
+    }
+
+    /*
+     * States of the brackets of visit(): NAME until a colon is found, then PENDING until the content is known not
+     * to be blank, and OPEN once reported. Brackets that can't become a reported tag are IGNORED.
+     */
+    private static final int NAME = 0, PENDING = 1, OPEN = 2, IGNORED = 3;
+
+    // Whether a bracket at the specified depth can be reported, that is, if it isn't part of the name of another one.
+    private static boolean isReported(final int @NotNull [] stack, final int depth) {
+        return depth == 0 || stack[(depth - 1) * 3 + 2] == OPEN;
+    }
+
+	/*
+	 - Escaping
+	 */
+
+    /**
+     * Appends the unescaped text of the provided {@code input} range to {@code out}. Escaped brackets
+     * ({@code "\\<"} and {@code "\\>"}) and escaped escape characters ({@code "\\\\"}) are converted to the
+     * character they represent. This is mostly useful to convert the ranges reported by a {@link JTagVisitor}.
+     *
+     * @param input The {@link CharSequence} to unescape.
+     * @param start The index where the range to unescape starts (Inclusive).
+     * @param end The index where the range to unescape ends (Exclusive).
+     * @param out The {@link StringBuilder} to append the unescaped text to.
+     *
+     * @return {@code out}, for convenience.
+     *
+     * @throws NullPointerException if {@code input} or {@code out} are {@code null}.
+     * @throws IndexOutOfBoundsException if the range is out of the bounds of {@code input}.
+     * @since JSky 1.0.0
+     */
+    public static @NotNull StringBuilder unescape(@NotNull final CharSequence input, final int start, final int end, @NotNull final StringBuilder out) {
+        return JTagTree.unescape(input, start, end, out);
     }
 
-    private static String unescape(@NotNull final String str) {
-        return str.replace("\\<", "<")
-                .replace("\\>", ">")
-                .replace("\\\\", "\\");
+    private static @NotNull String unescape(@NotNull final CharSequence input, final int start, final int end) {
+        return JTagTree.unescape(input, start, end, new StringBuilder(end - start)).toString();
     }
 }
@@ -0,0 +1,380 @@
+package net.codersky.jsky.strings.tag;
+
+import net.codersky.jsky.strings.CompiledReplacer;
+import net.codersky.jsky.strings.Replacement;
+import net.codersky.jsky.strings.Replacer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A precompiled template that combines {@link Replacer} substitution and {@link JTagParser tag parsing}. Templates
+ * are {@link #compile(String, String...) compiled} once, splitting the source into literal segments, placeholder
+ * slots and tag nodes, so rendering them only has to fill the slots instead of replacing and parsing the whole
+ * source again:
+ * <pre>
+ * JTagTemplate template = JTagTemplate.compile("Hello &lt;color:red:%player%&gt;!", "%player%");
+ * JTagParseAllResult result = template.renderTags("xDec0de_");
+ * </pre>
+ * Placeholders are matched on the source the same way a {@link CompiledReplacer} would, preferring the longest
+ * placeholder when more than one matches at the same position. Placeholders inside tags are matched on the name, content and
+ * raw text of the tag separately, so placeholders that span across tag boundaries are not matched.
+ * <p>
+ * Unlike calling {@link Replacer#replaceAt(String)} and then {@link JTagParser#parseAll(String)}, the values that fill
+ * the slots are never parsed as tags, so they can't inject tags on the rendered result. Tags without placeholders are
+ * only created once, so they are shared between every rendered result.
+ * <p>
+ * {@link JTagTemplate JTagTemplates} are immutable and thus safe to render from multiple threads.
+ *
+ * @author xDec0de_
+ * @since JSky 1.0.0
+ */
+public final class JTagTemplate {
+
+    private final String source;
+    private final String[] placeholders;
+    /** The whole source as a single text, used by {@link #render(Object...)}. */
+    private final Text text;
+    /** Top level text and tags, either {@link Text} or {@link Node}, used by {@link #renderTags(Object...)}. */
+    private final Object[] parts;
+
+    private JTagTemplate(@NotNull String source, @NotNull String @NotNull [] placeholders) {
+        this.source = Objects.requireNonNull(source);
+        this.placeholders = placeholders;
+        for (final String placeholder : placeholders)
+            Objects.requireNonNull(placeholder, "Placeholders cannot be null");
+        this.text = text(source);
+        final JTagTree tree = new JTagTree(source, Integer.MAX_VALUE);
+        final List<Object> parts = new ArrayList<>();
+        int pos = 0;
+        for (int tag = tree.getFirstRoot(); tag != -1; tag = tree.getNextSibling(tag)) {
+            if (pos < tree.getStart(tag))
+                parts.add(text(JTagTree.unescape(source, pos, tree.getStart(tag), new StringBuilder()).toString()));
+            parts.add(node(tree, tag));
+            pos = tree.getEnd(tag);
+        }
+        if (pos < source.length())
+            parts.add(text(JTagTree.unescape(source, pos, source.length(), new StringBuilder()).toString()));
+        this.parts = parts.toArray();
+    }
+
+	/*
+	 - Compilation
+	 */
+
+    /**
+     * Compiles a new {@link JTagTemplate} from the provided {@code source}. Every placeholder is assigned a slot
+     * by its position, which is the position its value must have when {@link #render(Object...) rendering} this
+     * template with positional arguments.
+     *
+     * @param source The source of the template.
+     * @param placeholders The placeholders to find on {@code source}, such as {@code "%player%"}. Empty
+     * placeholders are ignored.
+     *
+     * @return A new {@link JTagTemplate}.
+     *
+     * @throws NullPointerException if {@code source}, {@code placeholders} or any placeholder is {@code null}.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public static JTagTemplate compile(@NotNull String source, @NotNull String @NotNull ... placeholders) {
+        return new JTagTemplate(source, placeholders.clone());
+    }
+
+    /**
+     * Compiles a new {@link JTagTemplate} from the provided {@code source}, using the keys of {@code replacer} as
+     * placeholders. Only the keys are used, so the template can later be {@link #render(Replacer) rendered} with any
+     * {@link Replacer}. Slots are ordered by the first occurrence of their placeholder on {@code source}, followed
+     * by placeholders that don't occur on it in alphabetical order, see {@link #getPlaceholders()}.
+     *
+     * @param source The source of the template.
+     * @param replacer The {@link Replacer} to get the placeholders from.
+     *
+     * @return A new {@link JTagTemplate}.
+     *
+     * @throws NullPointerException if {@code source} or {@code replacer} are {@code null}.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public static JTagTemplate compile(@NotNull String source, @NotNull Replacer replacer) {
+        final String[] placeholders = replacer.getReplacementMap().keySet().toArray(new String[0]);
+        final int[] firstIndexes = new int[placeholders.length];
+        final Integer[] order = new Integer[placeholders.length];
+        for (int i = 0; i < placeholders.length; i++) {
+            final int index = source.indexOf(placeholders[i]);
+            firstIndexes[i] = index == -1 ? Integer.MAX_VALUE : index;
+            order[i] = i;
+        }
+        // The map has no defined order, so it can't be used for positional arguments.
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> firstIndexes[i]).thenComparing(i -> placeholders[i]));
+        final String[] sorted = new String[placeholders.length];
+        for (int i = 0; i < order.length; i++)
+            sorted[i] = placeholders[order[i]];
+        return new JTagTemplate(source, sorted);
+    }
+
+    @NotNull
+    private Text text(@NotNull String str) {
+        final List<String> literals = new ArrayList<>();
+        int[] slots = new int[4];
+        int slotCount = 0;
+        int written = 0;
+        int i = 0;
+        while (i < str.length()) {
+            final int slot = match(str, i);
+            if (slot == -1) {
+                i++;
+                continue;
+            }
+            if (slotCount == slots.length)
+                slots = Arrays.copyOf(slots, slotCount * 2);
+            literals.add(str.substring(written, i));
+            slots[slotCount++] = slot;
+            i += placeholders[slot].length();
+            written = i;
+        }
+        literals.add(str.substring(written));
+        return new Text(literals.toArray(new String[0]), Arrays.copyOf(slots, slotCount));
+    }
+
+    private int match(@NotNull String str, final int from) {
+        int best = -1;
+        for (int slot = 0; slot < placeholders.length; slot++) {
+            final String placeholder = placeholders[slot];
+            if (!placeholder.isEmpty() && (best == -1 || placeholder.length() > placeholders[best].length())
+                    && str.startsWith(placeholder, from))
+                best = slot;
+        }
+        return best;
+    }
+
+    @NotNull
+    private Node node(@NotNull JTagTree tree, final int tag) {
+        final List<Node> children = new ArrayList<>();
+        for (int child = tree.getFirstChild(tag); child != -1; child = tree.getNextSibling(child))
+            children.add(node(tree, child));
+        final String raw = source.substring(tree.getStart(tag) + 1, tree.getEnd(tag) - 1);
+        return new Node(text(raw), text(tree.getName(tag)), text(tree.getContent(tag)), children.toArray(new Node[0]));
+    }
+
+	/*
+	 - Information
+	 */
+
+    /**
+     * Gets the source that this {@link JTagTemplate} was compiled from.
+     *
+     * @return The source of this {@link JTagTemplate}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the placeholders of this {@link JTagTemplate}, in slot order.
+     *
+     * @return An immutable {@link List} with the placeholders of this {@link JTagTemplate}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public List<String> getPlaceholders() {
+        return List.of(placeholders);
+    }
+
+	/*
+	 - Rendering
+	 */
+
+    /**
+     * Renders this {@link JTagTemplate} to a {@link String}, filling every slot with the
+     * {@link Replacement#toStringValue(Object) string value} of the argument at its position. The result is the same
+     * as applying a {@link CompiledReplacer} to the {@link #getSource() source}, so placeholders are matched
+     * leftmost-longest and values are never searched for placeholders again. Tags are not parsed. This may differ from
+     * {@link Replacer#replaceAt(String)} when placeholders overlap.
+     *
+     * @param args The values of the placeholders, in slot order. {@code null} values are rendered as
+     * <i>"null"</i>, just like a {@link Replacer} would.
+     *
+     * @return The rendered {@link String}.
+     *
+     * @throws IllegalArgumentException if the amount of {@code args} doesn't match the amount of
+     * {@link #getPlaceholders() placeholders}.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public String render(@Nullable Object @NotNull ... args) {
+        return text.render(values(args));
+    }
+
+    /**
+     * Renders this {@link JTagTemplate} to a {@link String}, filling every slot with the replacement that
+     * {@code replacer} has for its placeholder. Placeholders that {@code replacer} doesn't replace are left as is.
+     *
+     * @param replacer The {@link Replacer} to get the values of the placeholders from.
+     *
+     * @return The rendered {@link String}.
+     *
+     * @throws NullPointerException if {@code replacer} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public String render(@NotNull Replacer replacer) {
+        return text.render(values(replacer));
+    }
+
+    /**
+     * Renders the text and tags of this {@link JTagTemplate}, filling every slot with the
+     * {@link Replacement#toStringValue(Object) string value} of the argument at its position.
+     *
+     * @param args The values of the placeholders, in slot order. {@code null} values are rendered as
+     * <i>"null"</i>, just like a {@link Replacer} would.
+     *
+     * @return A new {@link JTagParseAllResult} with the rendered text and tags.
+     *
+     * @throws IllegalArgumentException if the amount of {@code args} doesn't match the amount of
+     * {@link #getPlaceholders() placeholders}.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public JTagParseAllResult renderTags(@Nullable Object @NotNull ... args) {
+        return renderTags(values(args));
+    }
+
+    /**
+     * Renders the text and tags of this {@link JTagTemplate}, filling every slot with the replacement that
+     * {@code replacer} has for its placeholder. Placeholders that {@code replacer} doesn't replace are left as is.
+     *
+     * @param replacer The {@link Replacer} to get the values of the placeholders from.
+     *
+     * @return A new {@link JTagParseAllResult} with the rendered text and tags.
+     *
+     * @throws NullPointerException if {@code replacer} is {@code null}.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public JTagParseAllResult renderTags(@NotNull Replacer replacer) {
+        return renderTags(values(replacer));
+    }
+
+    @NotNull
+    private JTagParseAllResult renderTags(@NotNull String @NotNull [] values) {
+        final JTagParseAllResult result = new JTagParseAllResult();
+        for (final Object part : parts) {
+            if (part instanceof final Node node) {
+                result.add(node.render(values));
+            } else {
+                final String str = ((Text) part).render(values);
+                if (!str.isEmpty())
+                    result.add(str);
+            }
+        }
+        return result;
+    }
+
+    @NotNull
+    private String @NotNull [] values(@Nullable Object @NotNull [] args) {
+        if (args.length != placeholders.length)
+            throw new IllegalArgumentException("Expected " + placeholders.length + " arguments, got " + args.length);
+        final String[] values = new String[args.length];
+        for (int i = 0; i < args.length; i++)
+            values[i] = args[i] == null ? "null" : Replacement.toStringValue(args[i]);
+        return values;
+    }
+
+    @NotNull
+    private String @NotNull [] values(@NotNull Replacer replacer) {
+        Objects.requireNonNull(replacer);
+        final String[] values = new String[placeholders.length];
+        for (int i = 0; i < values.length; i++) {
+            final Object value = replacer.getReplacement(placeholders[i]);
+            values[i] = value == null ? placeholders[i] : Replacement.toStringValue(value);
+        }
+        return values;
+    }
+
+	/*
+	 - Object override
+	 */
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "JTagTemplate{source=" + source + ", placeholders=" + Arrays.toString(placeholders) + "}";
+    }
+
+	/*
+	 - Segments
+	 */
+
+    /** Literal text with slots between literals, so there is always one literal more than slots. */
+    private static final class Text {
+
+        private final String[] literals;
+        private final int[] slots;
+
+        Text(@NotNull String @NotNull [] literals, int @NotNull [] slots) {
+            this.literals = literals;
+            this.slots = slots;
+        }
+
+        boolean isConstant() {
+            return slots.length == 0;
+        }
+
+        @NotNull
+        String render(@NotNull String @NotNull [] values) {
+            if (slots.length == 0)
+                return literals[0];
+            int length = literals[0].length();
+            for (int i = 0; i < slots.length; i++)
+                length += values[slots[i]].length() + literals[i + 1].length();
+            final StringBuilder result = new StringBuilder(length).append(literals[0]);
+            for (int i = 0; i < slots.length; i++)
+                result.append(values[slots[i]]).append(literals[i + 1]);
+            return result.toString();
+        }
+    }
+
+    private static final class Node {
+
+        private final Text raw;
+        private final Text name;
+        private final Text content;
+        private final Node[] children;
+        /** The rendered tag if neither this node nor its children have slots, {@code null} otherwise. */
+        private final JTag constant;
+
+        Node(@NotNull Text raw, @NotNull Text name, @NotNull Text content, @NotNull Node @NotNull [] children) {
+            this.raw = raw;
+            this.name = name;
+            this.content = content;
+            this.children = children;
+            boolean isConstant = raw.isConstant() && name.isConstant() && content.isConstant();
+            for (final Node child : children)
+                isConstant &= child.constant != null;
+            this.constant = isConstant ? create(new String[0]) : null;
+        }
+
+        @NotNull
+        JTag render(@NotNull String @NotNull [] values) {
+            return constant != null ? constant : create(values);
+        }
+
+        @NotNull
+        private JTag create(@NotNull String @NotNull [] values) {
+            final JTag[] tags = children.length == 0 ? JTagParser.EMPTY_TAG_ARRAY : new JTag[children.length];
+            for (int i = 0; i < children.length; i++)
+                tags[i] = children[i].render(values);
+            return new JTag(raw.render(values), name.render(values), content.render(values), tags);
+        }
+    }
+}
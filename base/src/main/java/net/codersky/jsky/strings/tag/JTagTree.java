@@ -0,0 +1,555 @@
+package net.codersky.jsky.strings.tag;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A flat, index-based tree of the tags found on a {@link CharSequence}, obtained with
+ * {@link JTagParser#parseTree(CharSequence, int)}. Unlike {@link JTagParser#parseAll(String)}, parsing a
+ * {@link JTagTree} doesn't create any {@link String} nor {@link JTag}, it just stores the offsets of every tag on the
+ * original input, so parsing is linear on the length of the input. Names and contents are only materialized when
+ * requested with methods such as {@link #getName(int)}, {@link #getContent(int)} or {@link #toTag(int)}.
+ * <p>
+ * Tags are identified by an {@code int} index from {@code 0} (Inclusive) to {@link #size()} (Exclusive). Navigation
+ * is done with {@link #getFirstRoot()}, {@link #getFirstChild(int)}, {@link #getNextSibling(int)} and
+ * {@link #getParent(int)}, all of which return {@code -1} if there is no such tag:
+ * <pre>
+ * for (int tag = tree.getFirstRoot(); tag != -1; tag = tree.getNextSibling(tag))
+ *     System.out.println(tree.getName(tag));
+ * </pre>
+ * This is the engine used by {@link JTagParser#parse(String)} and {@link JTagParser#parseAll(String)}, so all of them
+ * follow the same rules: invalid (Blank or unclosed) tags are just treated as text and the name of a tag ends at the
+ * first {@code ':'} found outside its children. Parsing uses an explicit stack instead of recursion, so deeply nested
+ * input can't overflow the stack, and only brackets that can become a tag according to the maximum depth are stored.
+ * <p>
+ * The input is not copied, so it must not be modified while this {@link JTagTree} is in use.
+ *
+ * @author xDec0de_
+ * @see JTagParser#parseTree(CharSequence, int)
+ * @since JSky 1.0.0
+ */
+public final class JTagTree {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final CharSequence input;
+    private int size = 0;
+    private int firstRoot = -1;
+
+    /*
+     * Tag information, indexed by tag. Tags are stored in post-order, so the descendants of a tag are always
+     * the tags on the [marks[tag], tag) range.
+     */
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] ends = new int[INITIAL_CAPACITY];
+    private int[] colons = new int[INITIAL_CAPACITY];
+    private int[] marks = new int[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+
+    JTagTree(@NotNull CharSequence input, int maxDepth) {
+        this(input, maxDepth, Integer.MAX_VALUE, false);
+    }
+
+    JTagTree(@NotNull CharSequence input, int maxDepth, int maxLength, boolean firstOnly) {
+        this.input = Objects.requireNonNull(input);
+        parse(maxDepth, maxLength, firstOnly);
+    }
+
+	/*
+	 - Parsing
+	 */
+
+    private void parse(final int maxDepth, final int maxLength, final boolean firstOnly) {
+        // Open brackets waiting to be closed: start, colon and mark of every one of them. Brackets nested deeper
+        // than maxDepth can't become a tag, so they are just counted by depth instead of being stored.
+        int[] stack = new int[INITIAL_CAPACITY * 3];
+        int depth = 0;
+        final int length = Math.min(input.length(), Math.max(maxLength, 0));
+        for (int i = 0; i < length; i++) {
+            final char ch = input.charAt(i);
+            if (ch == '\\') {
+                i++;
+            } else if (ch == '<') {
+                if (depth <= maxDepth) {
+                    if (depth * 3 == stack.length)
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    stack[depth * 3] = i;
+                    stack[depth * 3 + 1] = -1;
+                    stack[depth * 3 + 2] = size;
+                }
+                depth++;
+            } else if (ch == ':' && depth != 0 && depth - 1 <= maxDepth && stack[(depth - 1) * 3 + 1] == -1) {
+                stack[(depth - 1) * 3 + 1] = i;
+                // Tags found before the colon are part of the name.
+                size = stack[(depth - 1) * 3 + 2];
+            } else if (ch == '>' && depth != 0) {
+                depth--;
+                if (depth <= maxDepth) {
+                    close(stack[depth * 3], i + 1, stack[depth * 3 + 1], stack[depth * 3 + 2]);
+                    if (firstOnly && depth == 0 && size != 0)
+                        break;
+                }
+            }
+        }
+        // Everything after the first unclosed bracket is just text.
+        if (depth != 0)
+            size = stack[2];
+        linkSiblings(-1, 0, size);
+    }
+
+    private void close(final int start, final int end, final int colon, final int mark) {
+        if (colon == -1) {
+            size = mark;
+            if (!isBlank(input, start + 1, end - 1))
+                add(start, end, colon, mark);
+        } else if (isBlank(input, trimStart(input, start + 1, colon), trimEnd(input, start + 1, colon)) || isBlank(input, colon + 1, end - 1))
+            size = mark;
+        else
+            add(start, end, colon, mark);
+    }
+
+    private void add(final int start, final int end, final int colon, final int mark) {
+        if (size == starts.length) {
+            final int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            colons = Arrays.copyOf(colons, capacity);
+            marks = Arrays.copyOf(marks, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        }
+        final int tag = size++;
+        starts[tag] = start;
+        ends[tag] = end;
+        colons[tag] = colon;
+        marks[tag] = mark;
+        parents[tag] = -1;
+        linkSiblings(tag, mark, tag);
+    }
+
+    // Links the top level tags of the [from, to) range as children of parent, -1 meaning root.
+    private void linkSiblings(final int parent, final int from, final int to) {
+        int next = -1;
+        for (int tag = to - 1; tag >= from; tag = marks[tag] - 1) {
+            parents[tag] = parent;
+            nextSiblings[tag] = next;
+            next = tag;
+        }
+        if (parent == -1)
+            firstRoot = next;
+        else
+            firstChildren[parent] = next;
+    }
+
+	/*
+	 - Character utility
+	 */
+
+    static boolean isBlank(@NotNull CharSequence input, int from, final int to) {
+        for (; from < to; from++)
+            if (!Character.isWhitespace(input.charAt(from)))
+                return false;
+        return true;
+    }
+
+    static int trimStart(@NotNull CharSequence input, int from, final int to) {
+        while (from < to && input.charAt(from) <= ' ')
+            from++;
+        return from;
+    }
+
+    static int trimEnd(@NotNull CharSequence input, final int from, int to) {
+        while (to > from && input.charAt(to - 1) <= ' ')
+            to--;
+        return to;
+    }
+
+    @NotNull
+    static StringBuilder unescape(@NotNull CharSequence input, final int from, final int to, @NotNull StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            final char ch = input.charAt(i);
+            if (ch == '\\' && i + 1 < to) {
+                final char next = input.charAt(i + 1);
+                if (next == '<' || next == '>' || next == '\\') {
+                    out.append(next);
+                    i++;
+                    continue;
+                }
+            }
+            out.append(ch);
+        }
+        return out;
+    }
+
+	/*
+	 - Information
+	 */
+
+    /**
+     * Gets the input that this {@link JTagTree} was parsed from.
+     *
+     * @return The input that this {@link JTagTree} was parsed from.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public CharSequence getInput() {
+        return input;
+    }
+
+    /**
+     * Gets the total amount of tags on this {@link JTagTree}, including nested ones.
+     *
+     * @return The total amount of tags on this {@link JTagTree}.
+     *
+     * @since JSky 1.0.0
+     */
+    public int size() {
+        return size;
+    }
+
+    private int check(final int tag) {
+        if (tag < 0 || tag >= size)
+            throw new IndexOutOfBoundsException("Tag " + tag + " out of bounds for size " + size);
+        return tag;
+    }
+
+	/*
+	 - Navigation
+	 */
+
+    /**
+     * Gets the first tag that isn't nested inside another tag.
+     *
+     * @return The first top level tag, {@code -1} if this {@link JTagTree} has no tags.
+     *
+     * @since JSky 1.0.0
+     */
+    public int getFirstRoot() {
+        return firstRoot;
+    }
+
+    /**
+     * Gets the first child of the specified {@code tag}.
+     *
+     * @param tag The tag to get the first child from.
+     *
+     * @return The first child of {@code tag}, {@code -1} if {@code tag} has no children.
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    public int getFirstChild(final int tag) {
+        return firstChildren[check(tag)];
+    }
+
+    /**
+     * Gets the next sibling of the specified {@code tag}, which is the next tag with the same {@link #getParent(int)
+     * parent}. Top level tags are siblings of each other.
+     *
+     * @param tag The tag to get the next sibling from.
+     *
+     * @return The next sibling of {@code tag}, {@code -1} if {@code tag} is the last one.
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    public int getNextSibling(final int tag) {
+        return nextSiblings[check(tag)];
+    }
+
+    /**
+     * Gets the parent of the specified {@code tag}.
+     *
+     * @param tag The tag to get the parent from.
+     *
+     * @return The parent of {@code tag}, {@code -1} if {@code tag} is a top level tag.
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    public int getParent(final int tag) {
+        return parents[check(tag)];
+    }
+
+	/*
+	 - Offsets
+	 */
+
+    /**
+     * Gets the index of the opening bracket of {@code tag} on the {@link #getInput() input}.
+     *
+     * @param tag The tag to get the start from.
+     *
+     * @return The index of the opening bracket of {@code tag} (Inclusive).
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    public int getStart(final int tag) {
+        return starts[check(tag)];
+    }
+
+    /**
+     * Gets the index right after the closing bracket of {@code tag} on the {@link #getInput() input}.
+     *
+     * @param tag The tag to get the end from.
+     *
+     * @return The index right after the closing bracket of {@code tag} (Exclusive).
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    public int getEnd(final int tag) {
+        return ends[check(tag)];
+    }
+
+    /**
+     * Gets the index where the name of {@code tag} starts on the {@link #getInput() input}. Surrounding whitespace is
+     * excluded from the name of tags that have {@link #hasContent(int) content}.
+     *
+     * @param tag The tag to get the name start from.
+     *
+     * @return The index where the name of {@code tag} starts (Inclusive).
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    public int getNameStart(final int tag) {
+        final int colon = colons[check(tag)];
+        return colon == -1 ? starts[tag] + 1 : trimStart(input, starts[tag] + 1, colon);
+    }
+
+    /**
+     * Gets the index where the name of {@code tag} ends on the {@link #getInput() input}. Surrounding whitespace is
+     * excluded from the name of tags that have {@link #hasContent(int) content}.
+     *
+     * @param tag The tag to get the name end from.
+     *
+     * @return The index where the name of {@code tag} ends (Exclusive).
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    public int getNameEnd(final int tag) {
+        final int colon = colons[check(tag)];
+        return colon == -1 ? ends[tag] - 1 : trimEnd(input, starts[tag] + 1, colon);
+    }
+
+    /**
+     * Checks whether {@code tag} has content or not, that is, if it has a {@code ':'} separating its name from its
+     * content. Tags without content also have no children.
+     *
+     * @param tag The tag to check.
+     *
+     * @return {@code true} if {@code tag} has content, {@code false} otherwise.
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    public boolean hasContent(final int tag) {
+        return colons[check(tag)] != -1;
+    }
+
+    /**
+     * Gets the index where the content of {@code tag} starts on the {@link #getInput() input}. The content range
+     * includes the children of {@code tag}.
+     *
+     * @param tag The tag to get the content start from.
+     *
+     * @return The index where the content of {@code tag} starts (Inclusive).
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    public int getContentStart(final int tag) {
+        final int colon = colons[check(tag)];
+        return colon == -1 ? ends[tag] - 1 : colon + 1;
+    }
+
+    /**
+     * Gets the index where the content of {@code tag} ends on the {@link #getInput() input}. The content range
+     * includes the children of {@code tag}.
+     *
+     * @param tag The tag to get the content end from.
+     *
+     * @return The index where the content of {@code tag} ends (Exclusive).
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    public int getContentEnd(final int tag) {
+        return ends[check(tag)] - 1;
+    }
+
+	/*
+	 - Visitor
+	 */
+
+    /**
+     * Reports every tag and text range of this {@link JTagTree} to the provided {@code visitor}, in order of
+     * appearance. No {@link String} nor {@link JTag} is created in the process.
+     *
+     * @param visitor The {@link JTagVisitor} to report to.
+     *
+     * @throws NullPointerException if {@code visitor} is {@code null}.
+     * @see JTagVisitor
+     * @since JSky 1.0.0
+     */
+    public void accept(@NotNull JTagVisitor visitor) {
+        Objects.requireNonNull(visitor);
+        int pos = 0;
+        int depth = 0;
+        int parent = -1;
+        int tag = firstRoot;
+        while (true) {
+            if (tag != -1) {
+                if (pos < starts[tag])
+                    visitor.onText(pos, starts[tag]);
+                visitor.onTagOpen(starts[tag], getNameStart(tag), getNameEnd(tag), depth++);
+                pos = getContentStart(tag);
+                parent = tag;
+                tag = firstChildren[tag];
+                continue;
+            }
+            // No more tags on this level, report the remaining text and go back to the parent.
+            final int end = parent == -1 ? input.length() : ends[parent] - 1;
+            if (pos < end)
+                visitor.onText(pos, end);
+            if (parent == -1)
+                return;
+            visitor.onTagClose(ends[parent], --depth);
+            pos = ends[parent];
+            tag = nextSiblings[parent];
+            parent = parents[parent];
+        }
+    }
+
+	/*
+	 - Materialization
+	 */
+
+    /**
+     * Gets the unescaped name of {@code tag}. A new {@link String} is created on every call.
+     *
+     * @param tag The tag to get the name from.
+     *
+     * @return The unescaped name of {@code tag}.
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public String getName(final int tag) {
+        final int start = getNameStart(tag);
+        final int end = getNameEnd(tag);
+        return unescape(input, start, end, new StringBuilder(end - start)).toString();
+    }
+
+    /**
+     * Gets the unescaped content of {@code tag}, excluding its children. A new {@link String} is created on every
+     * call.
+     *
+     * @param tag The tag to get the content from.
+     *
+     * @return The unescaped content of {@code tag}, empty if {@code tag} has no {@link #hasContent(int) content}.
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public String getContent(final int tag) {
+        final int end = getContentEnd(tag);
+        int pos = getContentStart(tag);
+        // Sized without the children, so nested tags don't make every level allocate the whole input again.
+        int length = end - pos;
+        for (int child = getFirstChild(tag); child != -1; child = nextSiblings[child])
+            length -= ends[child] - starts[child];
+        final StringBuilder content = new StringBuilder(length);
+        for (int child = getFirstChild(tag); child != -1; child = nextSiblings[child]) {
+            unescape(input, pos, starts[child], content);
+            pos = ends[child];
+        }
+        return unescape(input, pos, end, content).toString();
+    }
+
+    /**
+     * Gets the raw text of {@code tag}, including its brackets, exactly as it appears on the
+     * {@link #getInput() input}.
+     *
+     * @param tag The tag to get the raw text from.
+     *
+     * @return The raw text of {@code tag}.
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public String getRaw(final int tag) {
+        return input.subSequence(getStart(tag), ends[tag]).toString();
+    }
+
+    /**
+     * Converts {@code tag} to a {@link JTag}, including all of its children.
+     *
+     * @param tag The tag to convert.
+     *
+     * @return A new {@link JTag} representing {@code tag}.
+     *
+     * @throws IndexOutOfBoundsException if {@code tag} is out of bounds.
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public JTag toTag(final int tag) {
+        final int first = marks[check(tag)];
+        final JTag[] tags = new JTag[tag - first + 1];
+        // Every tag keeps its raw text as a range of this copy, copying it per tag would be quadratic on nested tags.
+        final int offset = starts[tag];
+        final String raw = input.subSequence(offset, ends[tag]).toString();
+        // Tags are stored in post-order, so children are always converted before their parents.
+        for (int current = first; current <= tag; current++) {
+            int childCount = 0;
+            for (int child = getFirstChild(current); child != -1; child = nextSiblings[child])
+                childCount++;
+            final JTag[] children = childCount == 0 ? JTagParser.EMPTY_TAG_ARRAY : new JTag[childCount];
+            childCount = 0;
+            for (int child = getFirstChild(current); child != -1; child = nextSiblings[child])
+                children[childCount++] = tags[child - first];
+            tags[current - first] = new JTag(raw, starts[current] - offset, ends[current] - offset, getName(current), getContent(current), children);
+        }
+        return tags[tags.length - 1];
+    }
+
+    /**
+     * Converts this {@link JTagTree} to a {@link JTagParseAllResult}, containing the unescaped text between top level
+     * tags as {@link String Strings} and every top level tag as a {@link JTag}.
+     *
+     * @return A new {@link JTagParseAllResult} with the contents of this {@link JTagTree}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public JTagParseAllResult toParseAllResult() {
+        return toParseAllResult(true);
+    }
+
+    @NotNull
+    JTagParseAllResult toParseAllResult(final boolean keepBlankExcess) {
+        final JTagParseAllResult result = new JTagParseAllResult();
+        int pos = 0;
+        for (int tag = firstRoot; tag != -1; tag = nextSiblings[tag]) {
+            if (pos < starts[tag])
+                result.add(unescape(input, pos, starts[tag], new StringBuilder()).toString());
+            result.add(toTag(tag));
+            pos = ends[tag];
+        }
+        if (pos < input.length() && (keepBlankExcess || firstRoot == -1 || !isBlank(input, pos, input.length())))
+            result.add(unescape(input, pos, input.length(), new StringBuilder()).toString());
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package net.codersky.jsky.strings.tag;
+
+/**
+ * Callback-based way to react to the tags of a {@link CharSequence} as they are found, without creating any
+ * {@link JTag} nor {@link JTagParseAllResult}. Visitors are used with {@link JTagParser#visit(CharSequence, JTagVisitor)}
+ * or {@link JTagTree#accept(JTagVisitor)}.
+ * <p>
+ * Every event receives offsets on the visited input instead of {@link String Strings}. Events are called in order of
+ * appearance, so for an input such as {@code "a<b:c<d>e>f"}, a visitor would receive:
+ * <pre>
+ * onText("a"), onTagOpen(b), onText("c"), onTagOpen(d), onTagClose(d), onText("e"), onTagClose(b), onText("f")
+ * </pre>
+ * Text ranges are raw, meaning that escape characters are still present on them. They can be unescaped with
+ * {@link JTagParser#unescape(CharSequence, int, int, StringBuilder)}. All methods do nothing by default, so only the
+ * relevant ones need to be implemented.
+ *
+ * @author xDec0de_
+ * @see JTagParser#visit(CharSequence, JTagVisitor)
+ * @since JSky 1.0.0
+ */
+public interface JTagVisitor {
+
+    /**
+     * Called for every range of text found outside tags or inside the content of a tag, excluding its children.
+     * Empty ranges are never reported.
+     *
+     * @param start The index where the text starts on the input (Inclusive).
+     * @param end The index where the text ends on the input (Exclusive).
+     *
+     * @since JSky 1.0.0
+     */
+    default void onText(int start, int end) {
+    }
+
+    /**
+     * Called when a tag is opened. If the tag has content, it will be reported with {@link #onText(int, int)} calls,
+     * mixed with events of its children, before {@link #onTagClose(int, int)} is called for this tag.
+     *
+     * @param start The index of the opening bracket of the tag on the input.
+     * @param nameStart The index where the name of the tag starts on the input (Inclusive).
+     * @param nameEnd The index where the name of the tag ends on the input (Exclusive).
+     * @param depth The depth of the tag, {@code 0} for top level tags.
+     *
+     * @since JSky 1.0.0
+     */
+    default void onTagOpen(int start, int nameStart, int nameEnd, int depth) {
+    }
+
+    /**
+     * Called when a tag is closed, after all of its content and children have been reported.
+     *
+     * @param end The index right after the closing bracket of the tag on the input.
+     * @param depth The depth of the tag, {@code 0} for top level tags.
+     *
+     * @since JSky 1.0.0
+     */
+    default void onTagClose(int end, int depth) {
+    }
+}
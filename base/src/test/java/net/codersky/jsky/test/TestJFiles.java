@@ -4,7 +4,14 @@ import net.codersky.jsky.JFiles;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestJFiles {
@@ -25,4 +32,19 @@ public class TestJFiles {
         nest.delete();
         JTestUtils.deleteFolder(JTestUtils.TMP_FOLDER);
     }
+
+    @Test
+    public void testAtomicWriting() throws IOException {
+        final File atomic = new File(nest, "atomic");
+        final File tmp = new File(nest, "atomic.tmp");
+        JFiles.writeAtomically(atomic, false, channel -> channel.write(ByteBuffer.wrap("first".getBytes(StandardCharsets.UTF_8))));
+        assertEquals("first", Files.readString(atomic.toPath()));
+        assertThrows(IOException.class, () -> JFiles.writeAtomically(atomic, true, channel -> {
+            channel.write(ByteBuffer.wrap("second".getBytes(StandardCharsets.UTF_8)));
+            throw new IOException("Failed write");
+        }));
+        assertEquals("first", Files.readString(atomic.toPath()));
+        assertFalse(tmp.exists());
+        JTestUtils.deleteFolder(JTestUtils.TMP_FOLDER);
+    }
 }
@@ -1,6 +1,7 @@
 package net.codersky.jsky.test.collections;
 
 import net.codersky.jsky.collections.JCollections;
+import net.codersky.jsky.collections.PrimitiveList;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 
@@ -13,8 +14,10 @@ import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.function.Function;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -76,6 +79,13 @@ public class TestJCollections {
         assertEquals("[1.0, 2.0]", toStr(JCollections.asDoubleList(1, 2)));
     }
 
+    @Test
+    public void testToPrimitiveArray() {
+        assertArrayEquals(new int[]{1, 2}, JCollections.toIntArray(List.of(1, 2)));
+        assertArrayEquals(new long[]{1, 2}, JCollections.toLongArray(PrimitiveList.of(1L, 2L)));
+        assertArrayEquals(new double[0], JCollections.toDoubleArray(List.of()));
+    }
+
     @Test
     public void testAsEnumSet() {
         assertEquals("[MONDAY]", toStr(JCollections.asEnumSet(DayOfWeek.MONDAY)));
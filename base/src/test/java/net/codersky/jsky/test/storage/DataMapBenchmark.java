@@ -0,0 +1,29 @@
+package net.codersky.jsky.test.storage;
+
+import net.codersky.jsky.PerformanceTest;
+import net.codersky.jsky.storage.DataMap;
+import net.codersky.jsky.storage.KeyPath;
+
+/**
+ * Compares the typed getters of {@link DataMap} with the ones that check values against a {@link Class}. This isn't
+ * a test, run it manually with its {@link #main(String[]) main} method.
+ */
+public class DataMapBenchmark {
+
+    private static final KeyPath STRING = KeyPath.of("section.string");
+    private static final KeyPath INT = KeyPath.of("section.int");
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        final DataMap map = new DataMap(true);
+        map.set(STRING, "value");
+        map.set(INT, 42);
+        new PerformanceTest(10_000_000, 100)
+                .addTest("get(path, String.class)", () -> sink = map.get(STRING, String.class))
+                .addTest("getString(path)", () -> sink = map.getString(STRING))
+                .addTest("get(path, Number.class)", () -> sink = map.get(INT, Number.class))
+                .addTest("getInt(path)", () -> sink = map.getInt(INT))
+                .addTest("get(path, 0)", () -> sink = map.get(INT, 0))
+                .run(System.out, 5);
+    }
+}
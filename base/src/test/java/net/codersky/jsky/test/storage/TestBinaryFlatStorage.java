@@ -0,0 +1,109 @@
+package net.codersky.jsky.test.storage;
+
+import net.codersky.jsky.collections.PrimitiveList;
+import net.codersky.jsky.storage.local.BinaryFlatStorage;
+import net.codersky.jsky.test.JTestUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestBinaryFlatStorage {
+
+    private static final File FILE = new File(JTestUtils.TMP_FOLDER, "test" + BinaryFlatStorage.FILE_EXTENSION);
+
+    @AfterAll
+    public static void cleanup() {
+        JTestUtils.deleteFolder(JTestUtils.TMP_FOLDER);
+    }
+
+    @Test
+    public void testRejectsWrongExtension() {
+        assertThrows(IllegalArgumentException.class, () -> new BinaryFlatStorage(new File("test.jflat")));
+        assertTrue(new BinaryFlatStorage("test").asFile().getName().endsWith(BinaryFlatStorage.FILE_EXTENSION));
+    }
+
+    @Test
+    public void testSaveAndReload() {
+        final UUID uuid = UUID.randomUUID();
+        final BinaryFlatStorage storage = new BinaryFlatStorage(FILE);
+        storage.setString("str", "Hello,\nwörld");
+        storage.setChar("char", '\n');
+        storage.setBoolean("bool", true);
+        storage.setUUID("uuid", uuid);
+        storage.setByte("byte", (byte) 1);
+        storage.setShort("short", (short) 2);
+        storage.setInt("int", 3);
+        storage.setLong("long", 4L);
+        storage.setFloat("float", 5.5f);
+        storage.setDouble("double", 6.5);
+        storage.setStrings("strs", List.of("a,b", ""));
+        storage.setBooleans("bools", List.of(true, false));
+        storage.setInts("ints", new int[]{1, 2, 3});
+        storage.setLongs("longs", List.of(4L, 5L));
+        storage.setDoubles("empty", List.of());
+        assertTrue(storage.save());
+
+        final BinaryFlatStorage loaded = new BinaryFlatStorage(FILE);
+        assertTrue(loaded.reload());
+        assertEquals("Hello,\nwörld", loaded.getString("str"));
+        assertEquals('\n', loaded.getChar("char", ' '));
+        assertTrue(loaded.getBoolean("bool", false));
+        assertEquals(uuid, loaded.getUUID("uuid"));
+        assertEquals((byte) 1, loaded.getByte("byte", (byte) 0));
+        assertEquals((short) 2, loaded.getShort("short", (short) 0));
+        assertEquals(3, loaded.getInt("int", 0));
+        assertEquals(4L, loaded.getLong("long", 0));
+        assertEquals(5.5f, loaded.getFloat("float", 0));
+        assertEquals(6.5, loaded.getDouble("double", 0));
+        assertEquals(List.of("a,b", ""), loaded.getStrings("strs"));
+        assertEquals(List.of(true, false), loaded.getBooleans("bools"));
+        assertArrayEquals(new int[]{1, 2, 3}, loaded.getIntArray("ints"));
+        assertInstanceOf(PrimitiveList.OfLong.class, loaded.getObject("longs"));
+        assertEquals(List.of(4L, 5L), loaded.getLongs("longs"));
+        assertNull(loaded.getObject("empty"));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testUnsupportedValuesFailToSave() {
+        final File file = new File(JTestUtils.TMP_FOLDER, "unsupported" + BinaryFlatStorage.FILE_EXTENSION);
+        final BinaryFlatStorage storage = new BinaryFlatStorage(file);
+        storage.setString("str", "value");
+        assertTrue(storage.save());
+        storage.setStrings("mixed", (List) List.of("a", 1));
+        assertFalse(storage.save());
+        storage.setStrings("mixed", (List) List.of(new Object()));
+        assertFalse(storage.save());
+        // The file is left untouched and the storage is still modified.
+        final BinaryFlatStorage loaded = new BinaryFlatStorage(file);
+        assertTrue(loaded.reload());
+        assertEquals("value", loaded.getString("str"));
+        assertNull(loaded.getObject("mixed"));
+        storage.setStrings("mixed", List.of("a"));
+        assertTrue(storage.save());
+    }
+
+    @Test
+    public void testReloadRejectsOtherFormats() throws IOException {
+        final File other = new File(JTestUtils.TMP_FOLDER, "other" + BinaryFlatStorage.FILE_EXTENSION);
+        final BinaryFlatStorage storage = new BinaryFlatStorage(other);
+        assertTrue(storage.reload()); // Empty files are valid.
+        try (FileWriter writer = new FileWriter(other)) {
+            writer.write("sKey:value");
+        }
+        assertFalse(storage.reload());
+    }
+}
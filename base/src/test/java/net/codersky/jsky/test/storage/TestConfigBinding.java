@@ -0,0 +1,89 @@
+package net.codersky.jsky.test.storage;
+
+import net.codersky.jsky.storage.ConfigBinding;
+import net.codersky.jsky.storage.DataManager;
+import net.codersky.jsky.storage.local.FlatStorage;
+import net.codersky.jsky.test.JTestUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestConfigBinding {
+
+    public record Limits(int chunks, List<String> worlds) {
+    }
+
+    public record ServerConfig(String motd, @ConfigBinding.Key("max-players") int maxPlayers, boolean whitelist, Limits limits) {
+    }
+
+    @SuppressWarnings("rawtypes")
+    public record RawList(List values) {
+    }
+
+    @AfterAll
+    public static void cleanup() {
+        JTestUtils.deleteFolder(JTestUtils.TMP_FOLDER);
+    }
+
+    @Test
+    public void testBinding() {
+        final DataManager data = new DataManager(true) {
+        };
+        data.setString("motd", "Hello");
+        data.setInt("max-players", 20);
+        data.setInt("limits.chunks", 8);
+        data.setStrings("limits.worlds", List.of("world", "nether"));
+
+        final ConfigBinding<ServerConfig> binding = ConfigBinding.of(data, ServerConfig.class);
+        final ServerConfig config = binding.get();
+        assertEquals("Hello", config.motd());
+        assertEquals(20, config.maxPlayers());
+        assertFalse(config.whitelist());
+        assertEquals(8, config.limits().chunks());
+        assertEquals(List.of("world", "nether"), config.limits().worlds());
+
+        // Not visible until refreshed
+        data.setInt("max-players", 30);
+        data.setInt("motd", 5);
+        assertSame(config, binding.get());
+        final ServerConfig refreshed = binding.refresh();
+        assertSame(refreshed, binding.get());
+        assertEquals(30, refreshed.maxPlayers());
+        assertNull(refreshed.motd());
+    }
+
+    @Test
+    public void testReload() {
+        final File file = new File(JTestUtils.TMP_FOLDER, "binding" + FlatStorage.FILE_EXTENSION);
+        final FlatStorage writer = new FlatStorage(file);
+        writer.setInt("max-players", 10);
+        assertTrue(writer.save());
+
+        final FlatStorage storage = new FlatStorage(file);
+        final ConfigBinding<ServerConfig> binding = ConfigBinding.of(storage, ServerConfig.class);
+        assertEquals(0, binding.get().maxPlayers());
+        assertTrue(binding.reload());
+        assertEquals(10, binding.get().maxPlayers());
+
+        writer.setInt("max-players", 15);
+        assertTrue(writer.save());
+        assertTrue(binding.reload());
+        assertEquals(15, binding.get().maxPlayers());
+    }
+
+    @Test
+    public void testUnboundList() {
+        final DataManager data = new DataManager(false) {
+        };
+        assertThrows(IllegalArgumentException.class, () -> ConfigBinding.of(data, RawList.class));
+    }
+}
@@ -1,16 +1,23 @@
 package net.codersky.jsky.test.storage;
 
 import net.codersky.jsky.storage.DataMap;
+import net.codersky.jsky.storage.KeyPath;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestDataMap {
@@ -56,6 +63,45 @@ public class TestDataMap {
         assertFalse(map.isModified());
     }
 
+    @Test
+    public void testModificationFlagIgnoresEqualValues() {
+        for (boolean concurrent : new boolean[]{false, true}) {
+            final DataMap map = new DataMap(false, concurrent);
+            map.set("k", 1);
+            map.setList("l", List.of(1, 2));
+            map.setModified(false);
+            map.set("k", 1);
+            map.setList("l", List.of(1, 2));
+            assertFalse(map.isModified());
+            map.set("k", 2);
+            assertTrue(map.isModified());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testModificationFlagAfterMutatingSetList() {
+        for (boolean concurrent : new boolean[]{false, true}) {
+            final DataMap map = new DataMap(false, concurrent);
+            map.trackChanges(true);
+            final List<String> lst = new ArrayList<>();
+            map.setList("k", lst);
+            map.setModified(false);
+            map.pollChanges();
+            lst.add("x");
+            map.setList("k", lst);
+            assertTrue(map.isModified());
+            assertEquals(Set.of("k"), map.pollChanges());
+            // Same for the stored instance itself.
+            map.setModified(false);
+            final List<String> stored = (List<String>) map.get("k");
+            stored.add("y");
+            map.setList("k", stored);
+            assertTrue(map.isModified());
+            assertEquals(List.of("x", "y"), map.getList("k"));
+        }
+    }
+
     /*
      - get / set basics
      */
@@ -146,6 +192,73 @@ public class TestDataMap {
         assertTrue(got.isEmpty());
     }
 
+    @Test
+    public void testGetListIsReadOnlyView() {
+        final DataMap map = new DataMap(false);
+        map.setList("k", new LinkedList<>(List.of(1, 2, 3)));
+        final List<Integer> got = map.getList("k", Integer.class);
+        assertThrows(UnsupportedOperationException.class, () -> got.add(4));
+        assertInstanceOf(ArrayList.class, map.get("k"));
+        map.setList("k", List.of(5));
+        assertEquals(List.of(5), map.getList("k"));
+    }
+
+    @Test
+    public void testSetListIsCopied() {
+        final DataMap map = new DataMap(true, true);
+        final ArrayList<String> lst = new ArrayList<>(List.of("a"));
+        map.setList("k", lst);
+        final Map<String, Object> snapshot = map.getSnapshot();
+        lst.add("b");
+        assertEquals(List.of("a"), map.getList("k"));
+        assertEquals(List.of("a"), snapshot.get("k"));
+    }
+
+    @Test
+    public void testManyNestedKeys() {
+        // More keys than the path cache can hold, so slots get replaced.
+        final DataMap map = new DataMap(true);
+        for (int i = 0; i < 5000; i++)
+            map.set("section" + (i % 7) + ".key" + i, i);
+        for (int i = 0; i < 5000; i++)
+            assertEquals(i, map.getInt("section" + (i % 7) + ".key" + i));
+        assertTrue(map.containsKeys("section0.key0"));
+        assertFalse(map.containsKeys("section0.missing"));
+    }
+
+    @Test
+    public void testGetListWithDefault() {
+        final DataMap map = new DataMap(false);
+        map.setList("ints", List.of(1, 2));
+        assertEquals(List.of(1, 2), map.getList("ints", List.of(0)));
+        assertEquals(List.of("a"), map.getList("ints", List.of("a")));
+        assertEquals(List.of(0), map.getList("missing", List.of(0)));
+    }
+
+    @Test
+    public void testTypedGetters() {
+        final DataMap map = new DataMap(true);
+        final UUID uuid = UUID.randomUUID();
+        map.set("a.str", "s");
+        map.set("a.int", 1);
+        map.set("a.long", 2L);
+        map.set("a.double", 1.5);
+        map.set("a.bool", true);
+        map.set("a.uuid", uuid);
+        assertEquals("s", map.getString("a.str"));
+        assertEquals(1, map.getInt(KeyPath.of("a.int")));
+        assertEquals(2L, map.getLong("a.long"));
+        assertEquals(1.5, map.getDouble("a.double"));
+        assertEquals(true, map.getBoolean("a.bool"));
+        assertEquals(uuid, map.getUUID("a.uuid"));
+        // Values of a different type aren't converted.
+        assertNull(map.getLong("a.int"));
+        assertNull(map.getString("a.int"));
+        assertNull(map.getInt("a.missing"));
+        assertEquals(5L, map.get("a.int", 5L));
+        assertEquals(1, map.get("a.int", 5));
+    }
+
     /*
      - Key access
      */
@@ -259,6 +372,72 @@ public class TestDataMap {
         assertNull(map.get("parent.child"));
     }
 
+    @Test
+    public void testContainsKeysNested() {
+        final DataMap map = new DataMap(true);
+        map.set("parent.child", 1);
+        assertTrue(map.containsKeys("parent.child", "parent"));
+        assertFalse(map.containsKeys("parent.missing"));
+    }
+
+    /*
+     - Key paths
+     */
+
+    @Test
+    public void testKeyPathSplitting() {
+        final KeyPath path = KeyPath.of("a.b.c");
+        assertEquals(3, path.size());
+        assertEquals("a", path.get(0));
+        assertEquals("c", path.getLast());
+        assertEquals("a.b.c", path.getKey());
+        assertEquals(1, KeyPath.of("a").size());
+        assertEquals("", KeyPath.of("a.").getLast());
+        assertEquals(KeyPath.of("a.b"), KeyPath.of("a.b"));
+    }
+
+    @Test
+    public void testKeyPathAccess() {
+        final DataMap map = new DataMap(true);
+        final KeyPath path = KeyPath.of("a.b.c");
+        map.set(path, 1);
+        assertEquals(1, map.get("a.b.c"));
+        assertEquals(1, map.get(path, Integer.class));
+        map.setList(KeyPath.of("a.list"), List.of(1, 2));
+        assertEquals(List.of(1, 2), map.getList(KeyPath.of("a.list"), Integer.class));
+        assertNull(map.get(KeyPath.of("a.b.missing")));
+    }
+
+    @Test
+    public void testKeyPathWithoutNestingUsesFullKey() {
+        final DataMap map = new DataMap(false);
+        map.set(KeyPath.of("a.b"), 1);
+        assertEquals(1, map.get("a.b"));
+        assertEquals(1, map.getKeys().size());
+    }
+
+    /*
+     - Change tracking
+     */
+
+    @Test
+    public void testChangeTracking() {
+        final DataMap map = new DataMap(true);
+        map.set("untracked", 0);
+        map.trackChanges(true);
+        assertTrue(map.pollChanges().isEmpty());
+        map.set("a.b", 1);
+        map.set("c", 2);
+        map.set("c", 2);
+        map.removeEntries("untracked", "missing");
+        assertEquals(Set.of("a.b", "c", "untracked"), map.getDirtyKeys());
+        assertEquals(Set.of("a.b", "c", "untracked"), map.pollChanges());
+        assertTrue(map.pollChanges().isEmpty());
+        map.trackChanges(false);
+        map.set("d", 3);
+        assertTrue(map.pollChanges().isEmpty());
+    }
+
     /*
      - Update
      */
@@ -347,4 +526,91 @@ public class TestDataMap {
         assertEquals(1, a.get("a", Integer.class));
         assertNull(a.get("b", Integer.class));
     }
+
+    /*
+     - Concurrent mode
+     */
+
+    @Test
+    public void testConcurrentSnapshotIsIsolated() {
+        final DataMap map = new DataMap(true, true);
+        assertTrue(map.isConcurrent());
+        map.set("a.b", 1);
+        final Map<String, Object> snapshot = map.getSnapshot();
+        map.set("a.c", 2);
+        map.set("d", 3);
+        assertEquals(1, snapshot.size());
+        assertEquals(1, ((Map<?, ?>) snapshot.get("a")).size());
+        assertEquals(2, map.get("a.c"));
+        assertEquals(2, map.getKeys("a").size());
+    }
+
+    @Test
+    public void testConcurrentViewsAreUnmodifiable() {
+        final DataMap map = new DataMap(false, true);
+        map.set("a", 1);
+        assertThrows(UnsupportedOperationException.class, () -> map.getKeys().remove("a"));
+        assertThrows(UnsupportedOperationException.class, () -> map.getSnapshot().put("b", 2));
+        assertThrows(UnsupportedOperationException.class, () -> map.getEntries().iterator().next().setValue(2));
+    }
+
+    @Test
+    public void testConcurrentSetContents() {
+        final DataMap map = new DataMap(false, true);
+        map.set("a", 1);
+        map.setModified(false);
+        map.setContents(Map.of("b", 2));
+        assertNull(map.get("a"));
+        assertEquals(2, map.get("b"));
+        assertFalse(map.isModified());
+    }
+
+    @Test
+    public void testConcurrentWritesAreNotLost() throws InterruptedException {
+        final DataMap map = new DataMap(true, true);
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    map.set("t" + id + ".k" + i, i);
+                    assertNotNull(map.getSnapshot());
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        for (int t = 0; t < threads.length; t++)
+            assertEquals(500, map.getKeys("t" + t).size());
+    }
+
+    @Test
+    public void testUpdateTree() {
+        for (boolean concurrent : new boolean[]{false, true}) {
+            final DataMap map = new DataMap(true, concurrent);
+            map.set("kept", "user");
+            map.set("section.old", 1);
+            map.set("section.value", "user");
+            map.set("custom.key", 2);
+            map.setModified(false);
+            final Map<String, Object> snapshot = map.getSnapshot();
+
+            final Map<String, Object> defaults = Map.of(
+                    "kept", "default",
+                    "added", 3,
+                    "section", Map.of("value", "default", "new", 4));
+            final Set<String> changes = map.updateTree(defaults, List.of("custom"));
+            assertEquals(Set.of("added", "section.new", "section.old"), changes);
+            assertTrue(map.isModified());
+            assertEquals("user", map.get("kept"));
+            assertEquals("user", map.get("section.value"));
+            assertEquals(4, map.get("section.new"));
+            assertNull(map.get("section.old"));
+            assertEquals(2, map.get("custom.key"));
+            if (concurrent) // Published versions are never modified.
+                assertNotNull(((Map<?, ?>) snapshot.get("section")).get("old"));
+            assertTrue(map.updateTree(defaults, List.of("custom")).isEmpty());
+        }
+    }
 }
@@ -1,17 +1,22 @@
 package net.codersky.jsky.test.storage;
 
 import net.codersky.jsky.storage.DataManager;
+import net.codersky.jsky.storage.KeyPath;
 import org.junit.jupiter.api.Test;
 
+import java.nio.IntBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestDataProvider {
@@ -132,6 +137,40 @@ public class TestDataProvider {
         assertEquals(List.of(4, 5, 6), dm.getInts("k"));
     }
 
+    @Test
+    public void testIntArrayRoundTrip() {
+        final DataManager dm = flat();
+        final int[] values = {4, 5, 6};
+        dm.setInts("k", values);
+        values[0] = 0; // Arrays are copied, so this must not change the stored list.
+        assertArrayEquals(new int[]{4, 5, 6}, dm.getIntArray("k"));
+        assertEquals(List.of(4, 5, 6), dm.getInts("k"));
+    }
+
+    @Test
+    public void testIntArrayFromBoxedList() {
+        final DataManager dm = flat();
+        dm.setInts("k", List.of(1, 2, 3));
+        assertArrayEquals(new int[]{1, 2, 3}, dm.getIntArray("k"));
+        dm.setString("s", "v");
+        assertNull(dm.getIntArray("s"));
+        assertNull(dm.getIntArray("missing"));
+    }
+
+    @Test
+    public void testIntBuffer() {
+        final DataManager dm = flat();
+        dm.setInts("k", new int[]{4, 5, 6});
+        final IntBuffer buffer = dm.getIntBuffer("k");
+        assertEquals(3, buffer.remaining());
+        assertEquals(5, buffer.get(1));
+        assertTrue(buffer.isReadOnly());
+        assertThrows(ReadOnlyBufferException.class, () -> buffer.put(0, 1));
+        dm.setInts("b", List.of(1, 2));
+        assertEquals(IntBuffer.wrap(new int[]{1, 2}), dm.getIntBuffer("b"));
+        assertNull(dm.getIntBuffer("missing"));
+    }
+
     /*
      - Longs (sanity check, since Date is stored as long internally)
      */
@@ -315,4 +354,19 @@ public class TestDataProvider {
         dm.setString("parent.child", "v");
         assertEquals("v", dm.getString("parent.child"));
     }
+
+    @Test
+    public void testKeyPathGetters() {
+        final KeyPath path = KeyPath.of("parent.child");
+        final DataManager dm = nested();
+        dm.setInt("parent.child", 42);
+        assertEquals(42, dm.getInt(path));
+        assertEquals(42, dm.getInt(path, 0));
+        assertEquals(7, dm.getInt(KeyPath.of("parent.missing"), 7));
+        assertNull(dm.getString(path));
+        // Storages without nesting use the full key.
+        final DataManager flat = flat();
+        flat.setString("parent.child", "v");
+        assertEquals("v", flat.getString(path));
+    }
 }
@@ -0,0 +1,213 @@
+package net.codersky.jsky.test.storage;
+
+import net.codersky.jsky.storage.local.FlatStorage;
+import net.codersky.jsky.test.JTestUtils;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFlatStorage {
+
+    @AfterAll
+    public static void cleanup() {
+        JTestUtils.deleteFolder(JTestUtils.TMP_FOLDER);
+    }
+
+    private static FlatStorage reloaded(File file) {
+        final FlatStorage storage = new FlatStorage(file);
+        assertTrue(storage.reload());
+        return storage;
+    }
+
+    @Test
+    public void testSaveAndReload() {
+        final File file = new File(JTestUtils.TMP_FOLDER, "flat" + FlatStorage.FILE_EXTENSION);
+        final FlatStorage storage = new FlatStorage(file);
+        storage.setInt("int", 1);
+        storage.setString("str", "Hello");
+        storage.setInts("ints", new int[]{1, 2});
+        assertTrue(storage.save());
+
+        final FlatStorage loaded = reloaded(file);
+        assertEquals(1, loaded.getInt("int"));
+        assertEquals("Hello", loaded.getString("str"));
+        assertEquals(List.of(1, 2), loaded.getInts("ints"));
+    }
+
+    @Test
+    public void testEntriesAreSeparatedByNewlines() throws IOException {
+        final File file = new File(JTestUtils.TMP_FOLDER, "lines" + FlatStorage.FILE_EXTENSION);
+        final FlatStorage storage = new FlatStorage(file);
+        storage.setString("a", "1");
+        storage.setString("b", "2");
+        assertTrue(storage.save());
+        final List<String> lines = Files.readAllLines(file.toPath());
+        assertEquals(List.of("sa:1", "sb:2"), lines.subList(1, lines.size()));
+        assertEquals("2", reloaded(file).getString("b"));
+    }
+
+    @Test
+    public void testModificationsWhileSavingAreSaved() {
+        final File file = new File(JTestUtils.TMP_FOLDER, "inflight" + FlatStorage.FILE_EXTENSION);
+        final AtomicBoolean modify = new AtomicBoolean(true);
+        final FlatStorage storage = new FlatStorage(file, true) {
+            @NotNull
+            @Override
+            public Set<Map.Entry<String, Object>> getEntries() {
+                final Set<Map.Entry<String, Object>> entries = super.getEntries();
+                // Modified right after the snapshot to save is taken.
+                if (modify.getAndSet(false))
+                    setInt("late", 1);
+                return entries;
+            }
+        };
+        storage.setInt("early", 1);
+        assertTrue(storage.saveAsync(Duration.ZERO).join());
+        assertNull(reloaded(file).getObject("late"));
+        // Still modified, so the next save writes it.
+        assertTrue(storage.saveAsync(Duration.ZERO).join());
+        assertEquals(1, reloaded(file).getInt("late"));
+        assertEquals(1, reloaded(file).getInt("early"));
+    }
+
+    @Test
+    public void testJournalAppendsChanges() {
+        final File file = new File(JTestUtils.TMP_FOLDER, "journal" + FlatStorage.FILE_EXTENSION);
+        final FlatStorage storage = new FlatStorage(file).useJournal(true);
+        storage.setInt("a", 1);
+        storage.setInt("b", 2);
+        assertTrue(storage.save()); // First save writes a full snapshot.
+        assertFalse(storage.getJournalFile().exists());
+
+        storage.setInt("a", 3);
+        storage.removeEntries("b");
+        storage.setString("c", "new");
+        assertTrue(storage.save());
+        assertTrue(storage.getJournalFile().exists());
+
+        final FlatStorage loaded = reloaded(file);
+        assertEquals(3, loaded.getInt("a"));
+        assertNull(loaded.getInt("b"));
+        assertEquals("new", loaded.getString("c"));
+    }
+
+    @Test
+    public void testJournalCompaction() {
+        final File file = new File(JTestUtils.TMP_FOLDER, "compaction" + FlatStorage.FILE_EXTENSION);
+        final FlatStorage storage = new FlatStorage(file).useJournal(true, 0);
+        storage.setInt("a", 1);
+        assertTrue(storage.save());
+        storage.setInt("a", 2);
+        assertTrue(storage.save()); // Compacts in the background.
+        storage.setInt("b", 3);
+        assertTrue(storage.save());
+
+        assertTrue(storage.reload()); // Waits for the compaction to finish.
+        final FlatStorage loaded = reloaded(file);
+        assertEquals(2, loaded.getInt("a"));
+        assertEquals(3, loaded.getInt("b"));
+    }
+
+    @Test
+    public void testFullSaveDiscardsJournal() {
+        final File file = new File(JTestUtils.TMP_FOLDER, "discard" + FlatStorage.FILE_EXTENSION);
+        final FlatStorage storage = new FlatStorage(file).useJournal(true);
+        storage.setInt("a", 1);
+        assertTrue(storage.save());
+        storage.setInt("a", 2);
+        assertTrue(storage.save());
+        storage.useJournal(false);
+        storage.setInt("a", 3);
+        assertTrue(storage.save());
+        assertFalse(storage.getJournalFile().exists());
+        assertEquals(3, reloaded(file).getInt("a"));
+    }
+
+    @Test
+    public void testLazyLoading() {
+        final File file = new File(JTestUtils.TMP_FOLDER, "lazy" + FlatStorage.FILE_EXTENSION);
+        final FlatStorage storage = new FlatStorage(file);
+        storage.setInt("int", 1);
+        storage.setStrings("strs", List.of("a,b", "c"));
+        storage.setString("str", "Hello");
+        assertTrue(storage.save());
+
+        final FlatStorage lazy = new FlatStorage(file).useLazyLoading(true);
+        assertTrue(lazy.reload());
+        assertTrue(lazy.usesLazyLoading());
+        assertEquals(1, lazy.getInt("int"));
+        assertEquals(List.of("a,b", "c"), lazy.getStrings("strs"));
+        lazy.setString("str", "World");
+        assertTrue(lazy.save()); // Unread values are written back as they were loaded.
+
+        final FlatStorage uncached = new FlatStorage(file).useLazyLoading(true, false);
+        assertTrue(uncached.reload());
+        assertEquals(1, uncached.getInt("int"));
+        assertEquals(List.of("a,b", "c"), uncached.getStrings("strs"));
+        assertEquals("World", uncached.getString("str"));
+    }
+
+    @Test
+    public void testLazyLoadingInvalidValues() throws IOException {
+        final File file = new File(JTestUtils.TMP_FOLDER, "lazy-invalid" + FlatStorage.FILE_EXTENSION);
+        Files.writeString(file.toPath(), "#0\nIint:abc\n*Iints:1,x\ncchar:\nIvalid:1\n");
+        final FlatStorage lazy = new FlatStorage(file).useLazyLoading(true);
+        assertTrue(lazy.reload());
+        assertNull(lazy.getInt("int"));
+        assertNull(lazy.getInts("ints"));
+        assertNull(lazy.getObject("char"));
+        assertEquals(1, lazy.getInt("valid"));
+    }
+
+    @Test
+    public void testParallelProcessing() {
+        final File file = new File(JTestUtils.TMP_FOLDER, "parallel" + FlatStorage.FILE_EXTENSION);
+        final FlatStorage storage = new FlatStorage(file).useParallelProcessing(true);
+        // Big enough to be split into multiple chunks.
+        final int entries = 300_000;
+        for (int i = 0; i < entries; i++)
+            storage.setInt("key" + i, i);
+        storage.setStrings("strs", List.of("a,b", "c"));
+        assertTrue(storage.save());
+        assertTrue(file.length() > 4 * 1024 * 1024);
+
+        final FlatStorage sequential = reloaded(file);
+        final FlatStorage parallel = new FlatStorage(file).useParallelProcessing(true);
+        assertTrue(parallel.reload());
+        assertEquals(entries + 1, sequential.getKeys().size());
+        assertEquals(sequential.getKeys().size(), parallel.getKeys().size());
+        for (int i = 0; i < entries; i += 997)
+            assertEquals(i, parallel.getInt("key" + i));
+        assertEquals(List.of("a,b", "c"), parallel.getStrings("strs"));
+        // Chunks aren't kept mapped, so the file can be replaced right after loading it.
+        parallel.setInt("key0", -1);
+        assertTrue(parallel.save());
+    }
+
+    @Test
+    public void testInvalidEntriesFailToReload() throws IOException {
+        final File file = new File(JTestUtils.TMP_FOLDER, "invalid" + FlatStorage.FILE_EXTENSION);
+        final FlatStorage storage = new FlatStorage(file);
+        for (int i = 0; i < 300_000; i++)
+            storage.setInt("key" + i, i);
+        assertTrue(storage.save());
+        Files.writeString(file.toPath(), "Iinvalid:abc\n", StandardOpenOption.APPEND);
+        assertFalse(new FlatStorage(file).reload());
+        assertFalse(new FlatStorage(file).useParallelProcessing(true).reload());
+    }
+}
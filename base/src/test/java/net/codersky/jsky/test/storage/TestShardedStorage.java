@@ -0,0 +1,71 @@
+package net.codersky.jsky.test.storage;
+
+import net.codersky.jsky.storage.local.ShardedStorage;
+import net.codersky.jsky.test.JTestUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestShardedStorage {
+
+    @AfterAll
+    public static void cleanup() {
+        JTestUtils.deleteFolder(JTestUtils.TMP_FOLDER);
+    }
+
+    @Test
+    public void testSaveAndLazyLoad() {
+        final File folder = new File(JTestUtils.TMP_FOLDER, "sharded");
+        final ShardedStorage storage = new ShardedStorage(folder, 8);
+        for (int i = 0; i < 100; i++)
+            storage.setInt("key" + i, i);
+        storage.setStrings("list", List.of("a", "b"));
+        assertTrue(storage.save());
+
+        final ShardedStorage loaded = new ShardedStorage(folder, 8);
+        assertEquals(0, loaded.getLoadedShards());
+        assertEquals(42, loaded.getInt("key42"));
+        assertEquals(1, loaded.getLoadedShards());
+        assertEquals(List.of("a", "b"), loaded.getStrings("list"));
+        assertEquals(101, loaded.getKeys().size());
+        assertEquals(8, loaded.getLoadedShards());
+    }
+
+    @Test
+    public void testOnlyDirtyShardsAreSaved() {
+        final File folder = new File(JTestUtils.TMP_FOLDER, "dirty");
+        final ShardedStorage storage = new ShardedStorage(folder, 16);
+        storage.setString("only", "value");
+        assertTrue(storage.save());
+        final int index = storage.getShardIndex("only");
+        for (int i = 0; i < storage.getShardCount(); i++)
+            assertEquals(i == index, storage.getShardFile(i).exists());
+
+        storage.removeEntries("only");
+        assertTrue(storage.save());
+        assertNull(new ShardedStorage(folder, 16).getString("only"));
+    }
+
+    @Test
+    public void testIdleEviction() {
+        final File folder = new File(JTestUtils.TMP_FOLDER, "eviction");
+        final ShardedStorage storage = new ShardedStorage(folder, 4);
+        storage.setInt("a", 1);
+        storage.setInt("b", 2);
+        assertEquals(0, storage.evictIdle()); // Default timeout, shards were just used.
+
+        storage.setIdleTimeout(Duration.ZERO);
+        assertTrue(storage.save());
+        assertEquals(0, storage.getLoadedShards());
+        // Evicted shards were saved before being evicted, so they are loaded again with their values.
+        assertEquals(1, storage.getInt("a"));
+        assertEquals(2, storage.getInt("b"));
+    }
+}
@@ -0,0 +1,56 @@
+package net.codersky.jsky.test.storage;
+
+import net.codersky.jsky.storage.Storage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestStorage {
+
+    private static class CountingStorage extends Storage {
+
+        final AtomicInteger saves = new AtomicInteger();
+
+        CountingStorage() {
+            super(false);
+        }
+
+        @Override
+        public boolean setup() {
+            return true;
+        }
+
+        @Override
+        public boolean save() {
+            saves.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public boolean reload() {
+            return true;
+        }
+    }
+
+    @Test
+    public void testSaveAsyncCoalescesRequests() {
+        final CountingStorage storage = new CountingStorage();
+        final CompletableFuture<Boolean> first = storage.saveAsync(Duration.ofMillis(50));
+        final CompletableFuture<Boolean> second = storage.saveAsync(Duration.ofMillis(50));
+        assertSame(first, second);
+        assertTrue(first.join());
+        assertEquals(1, storage.saves.get());
+        // Requests made after the save started schedule a new one.
+        final CompletableFuture<Boolean> third = storage.saveAsync(Duration.ZERO);
+        assertNotSame(first, third);
+        assertTrue(third.join());
+        assertEquals(2, storage.saves.get());
+    }
+}
@@ -0,0 +1,100 @@
+package net.codersky.jsky.test.storage;
+
+import net.codersky.jsky.storage.StorageWatcher;
+import net.codersky.jsky.storage.local.FlatStorage;
+import net.codersky.jsky.test.JTestUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestStorageWatcher {
+
+    @AfterAll
+    public static void cleanup() {
+        JTestUtils.deleteFolder(JTestUtils.TMP_FOLDER);
+    }
+
+    private static void await(AtomicInteger counter, int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && counter.get() < expected; i++)
+            Thread.sleep(50);
+    }
+
+    @Test
+    public void testReloadOnChange() throws IOException, InterruptedException {
+        final File file = new File(JTestUtils.TMP_FOLDER, "watched" + FlatStorage.FILE_EXTENSION);
+        final FlatStorage writer = new FlatStorage(file);
+        writer.setInt("value", 1);
+        assertTrue(writer.save());
+
+        final FlatStorage watched = new FlatStorage(file, true);
+        assertTrue(watched.reload());
+        final AtomicInteger reloads = new AtomicInteger();
+        try (final StorageWatcher watcher = new StorageWatcher(Duration.ofMillis(50))) {
+            watcher.watch(file, () -> {
+                // Counted after reloading, so the reloaded contents are visible once the count changes.
+                final boolean reloaded = watched.reload();
+                reloads.incrementAndGet();
+                return reloaded;
+            });
+            assertTrue(watcher.isWatched(file));
+
+            writer.setInt("value", 2);
+            assertTrue(writer.save());
+            await(reloads, 1);
+            assertEquals(1, reloads.get());
+            assertEquals(2, watched.getInt("value"));
+
+            // Same contents, same checksum, so no reload is needed.
+            Files.write(file.toPath(), Files.readAllBytes(file.toPath()));
+            Thread.sleep(300);
+            assertEquals(1, reloads.get());
+
+            assertTrue(watcher.unwatch(file));
+            assertFalse(watcher.isWatched(file));
+        }
+    }
+
+    @Test
+    public void testOwnSavesAreNotReloaded() throws IOException, InterruptedException {
+        final File file = new File(JTestUtils.TMP_FOLDER, "self" + FlatStorage.FILE_EXTENSION);
+        final AtomicInteger reloads = new AtomicInteger();
+        final FlatStorage storage = new FlatStorage(file, true) {
+            @Override
+            public boolean reload() {
+                reloads.incrementAndGet();
+                return super.reload();
+            }
+        };
+        storage.setInt("value", 1);
+        assertTrue(storage.save());
+        try (final StorageWatcher watcher = new StorageWatcher(Duration.ofMillis(50))) {
+            watcher.watch(file, storage);
+            storage.setInt("value", 2);
+            assertTrue(storage.save());
+            storage.setInt("value", 3);
+            assertTrue(storage.saveAsync(Duration.ZERO).join());
+            Thread.sleep(300);
+            assertEquals(0, reloads.get());
+            assertEquals(3, storage.getInt("value"));
+        }
+    }
+
+    @Test
+    public void testRejectsNonConcurrentStorages() throws IOException {
+        final File file = new File(JTestUtils.TMP_FOLDER, "plain" + FlatStorage.FILE_EXTENSION);
+        try (final StorageWatcher watcher = new StorageWatcher(Duration.ofMillis(50))) {
+            assertThrows(IllegalArgumentException.class, () -> watcher.watch(file, new FlatStorage(file)));
+            assertFalse(watcher.isWatched(file));
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package net.codersky.jsky.test.strings;
 
+import net.codersky.jsky.strings.CompiledReplacer;
 import net.codersky.jsky.strings.Replacement;
 import net.codersky.jsky.strings.Replacer;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -78,6 +83,108 @@ public class TestReplacer {
         assertEquals(one.getReplacementMap(), one.clone().getReplacementMap());
     }
 
+    /*
+     - Compiled replacer
+     */
+
+    @Test
+    public void testCompiledReplaceAtString() {
+        final CompiledReplacer world = new Replacer("%w", "world", "%h", "Hello").compile();
+        assertEquals("Hello world", world.replaceAt("%h %w"));
+        assertEquals("", world.replaceAt(""));
+        assertEquals("no keys", world.replaceAt("no keys"));
+        assertEquals("hi", new Replacer().compile().replaceAt("hi"));
+        assertEquals("%", world.replaceAt("%"));
+        assertEquals("worldworld%", world.replaceAt("%w%w%"));
+    }
+
+    @Test
+    public void testCompiledLeftmostLongest() {
+        final CompiledReplacer rep = new Replacer("%p", "short", "%player%", "long", "bc", "1", "abcd", "2").compile();
+        assertEquals("long", rep.replaceAt("%player%"));
+        assertEquals("shortlayer", rep.replaceAt("%player"));
+        assertEquals("2", rep.replaceAt("abcd"));
+        assertEquals("a1e", rep.replaceAt("abce"));
+        // Replacements are never searched again
+        assertEquals("bc", new Replacer("a", "bc", "bc", "x").compile().replaceAt("a"));
+    }
+
+    @Test
+    public void testCompiledMatchesReplacer() {
+        final Replacer rep = new Replacer();
+        for (int i = 0; i < 60; i++)
+            rep.add("%key" + i + "%", "value" + i);
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 60; i++)
+            input.append("text %key").append(i).append("% %key").append(i).append(" ");
+        assertEquals(rep.replaceAt(input.toString()), rep.compile().replaceAt(input.toString()));
+    }
+
+    @Test
+    public void testCompiledReplacementState() {
+        final ExampleReplacement replacement = new ExampleReplacement();
+        final Replacer replacer = new Replacer("%r", replacement);
+        final CompiledReplacer compiled = replacer.compile();
+        replacer.add("%r", "ignored");
+        assertEquals("replacement", compiled.replaceAt("%r"));
+        replacement.replacement = "Hello";
+        assertEquals(List.of("Hello", "Hello!"), compiled.replaceAt("%r", "%r!"));
+    }
+
+    /*
+     - Streaming
+     */
+
+    @Test
+    public void testReplaceAtAppendable() throws IOException {
+        final Replacer rep = new Replacer("%h", "hello", "%w", "world");
+        assertEquals("hello world", rep.replaceAt("%h %w", new StringBuilder()).toString());
+        final StringBuilder existing = new StringBuilder(">");
+        rep.compile().replaceAt(new StringBuilder("%w"), existing);
+        assertEquals(">world", existing.toString());
+        assertEquals("%h", new Replacer().compile().replaceAt("%h", new StringBuilder()).toString());
+    }
+
+    @Test
+    public void testReplaceAtReaderAcrossChunks() throws IOException {
+        final Replacer rep = new Replacer("%placeholder%", "value", "%p", "short");
+        final StringBuilder input = new StringBuilder();
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            input.append(i).append("%placeholder%").append("%p");
+            expected.append(i).append("value").append("short");
+        }
+        input.append("%placeholder");
+        expected.append("shortlaceholder");
+        // Whole input available on every read.
+        final StringWriter writer = new StringWriter();
+        rep.replaceAt(new StringReader(input.toString()), writer);
+        assertEquals(expected.toString(), writer.toString());
+        // At most 3 characters per read, so keys always span multiple reads.
+        final StringWriter slowWriter = new StringWriter();
+        rep.compile().replaceAt(new SlowReader(input.toString()), slowWriter);
+        assertEquals(expected.toString(), slowWriter.toString());
+    }
+
+    private static class SlowReader extends Reader {
+
+        private final StringReader reader;
+
+        SlowReader(String str) {
+            this.reader = new StringReader(str);
+        }
+
+        @Override
+        public int read(char @NotNull [] buffer, int offset, int length) throws IOException {
+            return reader.read(buffer, offset, Math.min(3, length));
+        }
+
+        @Override
+        public void close() {
+            reader.close();
+        }
+    }
+
     private static class ExampleReplacement implements Replacement {
 
         String replacement = "replacement";
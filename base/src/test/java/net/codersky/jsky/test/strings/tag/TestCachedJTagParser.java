@@ -0,0 +1,70 @@
+package net.codersky.jsky.test.strings.tag;
+
+import net.codersky.jsky.strings.tag.CachedJTagParser;
+import net.codersky.jsky.strings.tag.JTag;
+import net.codersky.jsky.strings.tag.JTagParseAllResult;
+import net.codersky.jsky.strings.tag.JTagParser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestCachedJTagParser {
+
+    @Test
+    void testHitsAndMisses() {
+        final CachedJTagParser parser = JTagParser.cached(4);
+        final JTagParseAllResult first = parser.parseAll("<a:b>c");
+        assertEquals(new JTag("a", "b"), first.getTag(0));
+        assertEquals("c", first.getString(1));
+        assertSame(first, parser.parseAll("<a:b>c"));
+        assertEquals(1, parser.getHits());
+        assertEquals(1, parser.getMisses());
+        assertEquals(1, parser.size());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEviction() {
+        final CachedJTagParser parser = JTagParser.cached(2);
+        final JTagParseAllResult a = parser.parseAll("<a>");
+        parser.parseAll("<b>");
+        parser.parseAll("<a>"); // "<a>" is now the most recently used
+        parser.parseAll("<c>");
+        assertEquals(1, parser.getEvictions());
+        assertEquals(2, parser.size());
+        assertSame(a, parser.parseAll("<a>"));
+        parser.parseAll("<b>");
+        assertEquals(4, parser.getMisses());
+    }
+
+    @Test
+    void testMaxDepth() {
+        final CachedJTagParser parser = JTagParser.cached(1, 0);
+        assertEquals(new JTag("a", "b<c:d>"), parser.parseAll("<a:b<c:d>>").getTag(0));
+    }
+
+    @Test
+    void testSharedResultsCantBeModified() {
+        final CachedJTagParser parser = JTagParser.cached(1);
+        parser.parseAll("<a:b<c>>").getTag(0).getChildren()[0] = null;
+        final JTag tag = parser.parseAll("<a:b<c>>").getTag(0);
+        assertEquals(1, tag.getChildCount());
+        assertEquals(new JTag("c"), tag.getChild(0));
+    }
+
+    @Test
+    void testInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> JTagParser.cached(0));
+    }
+
+    @Test
+    void testSharedResultsAreImmutable() {
+        final JTagParseAllResult result = JTagParser.cached(1).parseAll("<a>b");
+        assertThrows(UnsupportedOperationException.class, () -> {
+            final var it = result.iterator();
+            it.next();
+            it.remove();
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package net.codersky.jsky.test.strings.tag;
+
+import net.codersky.jsky.strings.Replacer;
+import net.codersky.jsky.strings.tag.JTag;
+import net.codersky.jsky.strings.tag.JTagParseAllResult;
+import net.codersky.jsky.strings.tag.JTagParser;
+import net.codersky.jsky.strings.tag.JTagTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestJTagTemplate {
+
+    private static List<Object> list(JTagParseAllResult result) {
+        final List<Object> list = new java.util.ArrayList<>();
+        result.forEach(list::add);
+        return list;
+    }
+
+	/*
+	 - Rendering
+	 */
+
+    @Test
+    void testRenderString() {
+        final JTagTemplate template = JTagTemplate.compile("Hi %name%, <b:%name%%>", "%name%", "%name%%");
+        assertEquals("Hi Bob, <b:50>", template.render("Bob", 50));
+        assertEquals("Hi null, <b:x>", template.render(null, "x"));
+    }
+
+    @Test
+    void testRenderTagsMatchesReplaceAndParse() {
+        final String source = "Hi <a:%p% <b:%p%>!> and <c> %p%";
+        final Replacer replacer = new Replacer("%p%", "Bob");
+        final JTagTemplate template = JTagTemplate.compile(source, replacer);
+        assertEquals(list(JTagParser.parseTree(replacer.replaceAt(source)).toParseAllResult()),
+                list(template.renderTags(replacer)));
+        assertEquals(List.of("Hi ", new JTag("a", "Bob !", new JTag[] {new JTag("b", "Bob")}), " and ",
+                new JTag("c"), " Bob"), list(template.renderTags("Bob")));
+    }
+
+    @Test
+    void testValuesAreNotParsed() {
+        final JTagTemplate template = JTagTemplate.compile("<a:%v%>", "%v%");
+        final JTag tag = template.renderTags("<b>").getTag(0);
+        assertEquals(new JTag("a", "<b>"), tag);
+        assertEquals(0, tag.getChildren().length);
+    }
+
+    @Test
+    void testConstantTagsAreShared() {
+        final JTagTemplate template = JTagTemplate.compile("<a:b> %v%", "%v%");
+        assertSame(template.renderTags("x").getTag(0), template.renderTags("y").getTag(0));
+        assertEquals(" y", template.renderTags("y").getString(1));
+    }
+
+    @Test
+    void testMissingReplacement() {
+        final JTagTemplate template = JTagTemplate.compile("%a% %b%", "%a%", "%b%");
+        assertEquals("1 %b%", template.render(new Replacer("%a%", 1)));
+    }
+
+    @Test
+    void testReplacerSlotOrder() {
+        final Replacer replacer = new Replacer("%z%", 0, "%c%", 0, "%unused%", 0, "%a%", 0, "%b%", 0);
+        final JTagTemplate template = JTagTemplate.compile("%c% <t:%a%> %z% %c% %b%", replacer);
+        assertEquals(List.of("%c%", "%a%", "%z%", "%b%", "%unused%"), template.getPlaceholders());
+        assertEquals("1 <t:2> 3 1 4", template.render(1, 2, 3, 4, 5));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        final JTagTemplate template = JTagTemplate.compile("%a%", "%a%");
+        assertThrows(IllegalArgumentException.class, () -> template.render("a", "b"));
+    }
+}
@@ -0,0 +1,117 @@
+package net.codersky.jsky.test.strings.tag;
+
+import net.codersky.jsky.strings.tag.JTag;
+import net.codersky.jsky.strings.tag.JTagParseAllResult;
+import net.codersky.jsky.strings.tag.JTagParser;
+import net.codersky.jsky.strings.tag.JTagTree;
+import org.junit.jupiter.api.Test;
+
+import static net.codersky.jsky.strings.tag.JTagParser.parseAll;
+import static net.codersky.jsky.strings.tag.JTagParser.parseTree;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestJTagTree {
+
+	/*
+	 - Structure
+	 */
+
+    @Test
+    void testNoTags() {
+        assertEquals(0, parseTree("No tags").size());
+        assertEquals(-1, parseTree("").getFirstRoot());
+    }
+
+    @Test
+    void testOffsets() {
+        final JTagTree tree = parseTree("a<b: c<d>e>f");
+        assertEquals(2, tree.size());
+        final int b = tree.getFirstRoot();
+        assertEquals(1, tree.getStart(b));
+        assertEquals(11, tree.getEnd(b));
+        assertEquals(2, tree.getNameStart(b));
+        assertEquals(3, tree.getNameEnd(b));
+        assertEquals(4, tree.getContentStart(b));
+        assertEquals(10, tree.getContentEnd(b));
+        assertTrue(tree.hasContent(b));
+        assertEquals(-1, tree.getNextSibling(b));
+        final int d = tree.getFirstChild(b);
+        assertEquals(b, tree.getParent(d));
+        assertEquals(-1, tree.getFirstChild(d));
+        assertFalse(tree.hasContent(d));
+        assertEquals("<d>", tree.getRaw(d));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.getStart(2));
+    }
+
+    @Test
+    void testLazyMaterialization() {
+        final JTagTree tree = parseTree(new StringBuilder("<  name : con<x>tent>"));
+        final int tag = tree.getFirstRoot();
+        assertEquals("name", tree.getName(tag));
+        assertEquals(" content", tree.getContent(tag));
+        assertEquals(new JTag("x"), tree.toTag(tree.getFirstChild(tag)));
+    }
+
+    @Test
+    void testSiblings() {
+        final JTagTree tree = parseTree("<a:1<b><c>><d>");
+        final int a = tree.getFirstRoot();
+        final int d = tree.getNextSibling(a);
+        assertEquals("a", tree.getName(a));
+        assertEquals("d", tree.getName(d));
+        final int b = tree.getFirstChild(a);
+        assertEquals("b", tree.getName(b));
+        assertEquals("c", tree.getName(tree.getNextSibling(b)));
+    }
+
+    @Test
+    void testInvalidTagsAreText() {
+        final JTagTree tree = parseTree("< ><a>");
+        assertEquals(1, tree.size());
+        assertEquals("a", tree.getName(tree.getFirstRoot()));
+        assertEquals(0, parseTree("<unclosed<a>").size());
+        assertEquals("< : >", parseTree("<a:< : >>").toTag(0).getContent());
+    }
+
+    @Test
+    void testMaxDepth() {
+        final JTagTree tree = parseTree("<a:b<c:d>>", 0);
+        assertEquals(1, tree.size());
+        assertEquals(new JTag("a", "b<c:d>"), tree.toTag(tree.getFirstRoot()));
+    }
+
+    @Test
+    void testDeepNesting() {
+        final int depth = 100_000;
+        final String input = "<a:".repeat(depth) + "x" + ">".repeat(depth);
+        final JTagTree tree = parseTree(input, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertEquals(depth, tree.size());
+        assertEquals("a", tree.getName(tree.getFirstRoot()));
+        // Budgeted by default.
+        assertEquals(JTagParser.DEFAULT_MAX_DEPTH + 1, parseTree(input).size());
+    }
+
+	/*
+	 - Parse all equivalence
+	 */
+
+    @Test
+    void testMatchesParseAll() {
+        final String[] inputs = {
+                "<a:b>c<d:e>f", "<simple>", "a<simple>b", "<a:b<c:d>>", "<a:a<bb:bb<ccc:ccc>bb>a>",
+                "\\\\<\\\\:\\\\>\\\\", "\\<Escape\\>", "text <a:b<c><d:e>> more <f>"
+        };
+        for (String input : inputs) {
+            final JTagParseAllResult expected = parseAll(input);
+            final JTagParseAllResult actual = parseTree(input).toParseAllResult();
+            assertEquals(expected.size(), actual.size(), input);
+            for (int i = 0; i < expected.size(); i++)
+                assertEquals(expected.get(i), actual.get(i), input);
+            for (int i = 0; i < expected.getTags().size(); i++)
+                assertEquals(expected.getTags().get(i).getRaw(), actual.getTags().get(i).getRaw(), input);
+        }
+    }
+}
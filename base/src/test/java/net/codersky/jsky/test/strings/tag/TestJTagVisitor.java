@@ -0,0 +1,85 @@
+package net.codersky.jsky.test.strings.tag;
+
+import net.codersky.jsky.strings.tag.JTagParser;
+import net.codersky.jsky.strings.tag.JTagVisitor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestJTagVisitor {
+
+    @Test
+    void testEventOrder() {
+        assertEquals(List.of("text:a", "open:b@0", "text:c", "open:d@1", "close:d@1", "text:e", "close:b@0", "text:f"),
+                visit("a<b:c<d>e>f", Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testNoTags() {
+        assertEquals(List.of("text:No tags"), visit("No tags", Integer.MAX_VALUE));
+        assertEquals(List.of(), visit("", Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testSiblingsAndEscapes() {
+        assertEquals(List.of("open:a@0", "close:a@0", "text:<", "open:b@0", "text:x", "close:b@0"),
+                visit("<a>\\<<b:x>", Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testMaxDepth() {
+        assertEquals(List.of("open:a@0", "text:b<c:d>", "close:a@0"), visit("<a:b<c:d>>", 0));
+        assertEquals(List.of("open:a@0", "text:b", "open:c@1", "text:d", "close:c@1", "close:a@0"),
+                visit("<a:b<c:d>>", 1));
+    }
+
+    @Test
+    void testMatchesTree() {
+        for (String input : List.of("< >", "<a:>", "<:b>", "<a<b:c>>", "x<a:  <b>  >y", "<a: \\<>", "<a:<b: >c>", "a\\<b>c<"))
+            assertEquals(events(input, visitor -> JTagParser.parseTree(input).accept(visitor)), visit(input, Integer.MAX_VALUE), input);
+    }
+
+    @Test
+    void testUnclosedTags() {
+        // Tags are reported as they are found, so unclosed ones are closed when the input ends.
+        assertEquals(List.of("open:a@0", "text:b", "open:c@1", "text:d", "close:c@1", "close:a@0"), visit("<a:b<c:d>", Integer.MAX_VALUE));
+        assertEquals(List.of("text:x", "open:a@0", "open:b@1", "text:c", "close:b@1", "close:a@0"), visit("x<a:<b:c>", Integer.MAX_VALUE));
+        assertEquals(List.of("text:x<a: "), visit("x<a: ", Integer.MAX_VALUE));
+    }
+
+    private List<String> visit(String input, int maxDepth) {
+        return events(input, visitor -> JTagParser.visit(input, visitor, maxDepth));
+    }
+
+    private List<String> events(String input, Consumer<JTagVisitor> parser) {
+        final List<String> events = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        parser.accept(new JTagVisitor() {
+            @Override
+            public void onText(int start, int end) {
+                // Consecutive ranges are merged, as they may be split.
+                final String text = JTagParser.unescape(input, start, end, new StringBuilder()).toString();
+                if (!events.isEmpty() && events.getLast().startsWith("text:"))
+                    events.add("text:" + events.removeLast().substring(5) + text);
+                else
+                    events.add("text:" + text);
+            }
+
+            @Override
+            public void onTagOpen(int start, int nameStart, int nameEnd, int depth) {
+                names.add(input.substring(nameStart, nameEnd));
+                events.add("open:" + names.getLast() + "@" + depth);
+            }
+
+            @Override
+            public void onTagClose(int end, int depth) {
+                events.add("close:" + names.removeLast() + "@" + depth);
+            }
+        });
+        return events;
+    }
+}
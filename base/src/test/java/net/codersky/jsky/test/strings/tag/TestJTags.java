@@ -3,14 +3,17 @@ package net.codersky.jsky.test.strings.tag;
 import net.codersky.jsky.strings.tag.JTag;
 import net.codersky.jsky.strings.tag.JTagParseAllResult;
 import net.codersky.jsky.strings.tag.JTagParseResult;
+import net.codersky.jsky.strings.tag.JTagParser;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 
 import static net.codersky.jsky.strings.tag.JTagParser.parse;
 import static net.codersky.jsky.strings.tag.JTagParser.parseAll;
+import static net.codersky.jsky.strings.tag.JTagParser.parseTree;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestJTags {
 
@@ -75,6 +78,44 @@ public class TestJTags {
         test(parse("<a:b<c:d>>", 0, 0), "", new JTag("a", "b<c:d>"), "");
     }
 
+    @Test
+    void testDeepNesting() {
+        final int depth = 2_000;
+        final String input = "<a:".repeat(depth) + ">".repeat(depth);
+        JTag tag = parse(input, 0, Integer.MAX_VALUE).getTag();
+        // The innermost tag is blank, so it is just content of its parent.
+        for (int i = 2; i < depth; i++) {
+            assertNotNull(tag);
+            assertEquals(1, tag.getChildren().length);
+            tag = tag.getChildren()[0];
+        }
+        assertEquals(new JTag("a", "<a:>"), tag);
+        // Only DEFAULT_MAX_DEPTH levels are parsed by default.
+        final JTag limited = descend(parse(input).getTag(), JTagParser.DEFAULT_MAX_DEPTH);
+        assertEquals(0, limited.getChildCount());
+        assertTrue(limited.getContent().startsWith("<a:<a:"));
+        // Memory is linear too, every level only copies its own content.
+        final int levels = 100_000;
+        final String nested = "<a:".repeat(levels) + "x" + ">".repeat(levels);
+        final JTag innermost = descend(parse(nested, 0, Integer.MAX_VALUE).getTag(), levels - 1);
+        assertEquals(new JTag("a", "x"), innermost);
+        assertEquals("<a:x>", innermost.getRaw());
+        final String deep = "<a:".repeat(1_000_000) + ">".repeat(1_000_000);
+        assertEquals(999_999, parseTree(deep, Integer.MAX_VALUE, Integer.MAX_VALUE).size());
+        assertEquals(JTagParser.DEFAULT_MAX_DEPTH + 1, parseTree(input).size());
+        assertEquals("a", parse(deep, 0, 0, Integer.MAX_VALUE).getTag().getName());
+        assertEquals("<".repeat(depth), parse("<".repeat(depth)).getSkipped());
+    }
+
+    @Test
+    void testLengthBudget() {
+        test(parse("<a:b><c>", 0, Integer.MAX_VALUE, 5), "", new JTag("a", "b"), "<c>");
+        test(parse("<a:b>", 0, Integer.MAX_VALUE, 4), "<a:b>", null, "");
+        final JTagParseAllResult res = parseAll("<a><b><c>", 0, Integer.MAX_VALUE, 4);
+        assertEquals(new JTag("a"), res.getTag(0));
+        assertEquals("<b><c>", res.getString(1));
+    }
+
 	/*
 	 - Parse all
 	 */
@@ -88,6 +129,18 @@ public class TestJTags {
         assertEquals("f", res.getString(3));
     }
 
+    @Test
+    void testParseAllInvalidTags() {
+        final JTagParseAllResult res = parseAll("< >a<b:c>\\<d> ");
+        assertEquals(3, res.size());
+        assertEquals("< >a", res.getString(0));
+        assertEquals(new JTag("b", "c"), res.getTag(1));
+        assertEquals("<d> ", res.getString(2));
+        // Escaped brackets are not parsed again and blank text after the last tag is ignored.
+        assertEquals(" <d>", parseAll("<d> \\<d>").getString(1));
+        assertEquals(1, parseAll("<d> ").size());
+    }
+
 	/*
 	 - To string
 	 */
@@ -159,6 +212,12 @@ public class TestJTags {
 	 - Util
 	 */
 
+    private JTag descend(JTag tag, int levels) {
+        for (int i = 0; i < levels; i++)
+            tag = tag.getChild(0);
+        return tag;
+    }
+
     private void test(@NotNull JTagParseResult result, String skipped, JTag tag, String remaining) {
         assertEquals(skipped, result.getSkipped());
         assertEquals(tag, result.getTag());
@@ -2,26 +2,35 @@ package net.codersky.jsky.yaml;
 
 import net.codersky.jsky.JFiles;
 import net.codersky.jsky.Reloadable;
-import net.codersky.jsky.storage.DataManager;
 import net.codersky.jsky.storage.DataMap;
+import net.codersky.jsky.storage.Storage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
 /**
- * {@link DataManager} for {@link Yaml} files implementing the {@link Reloadable} {@code interface}.
+ * {@link Storage} for {@link Yaml} files implementing the {@link Reloadable} {@code interface}.
  * <p>
  * A {@link YamlFile} has two paths that are used internally. For clarification purposes, we will refer to the path used
  * to obtain the {@link ClassLoader#getResourceAsStream(String) resource} of this file as the
@@ -39,12 +48,17 @@ import java.util.function.Consumer;
  * @see #update(List)
  * @since JSky 1.0.0
  */
-public class YamlFile extends DataManager implements Reloadable {
+public class YamlFile extends Storage {
 
     protected final ClassLoader loader;
+    /** The {@link Yaml} instance of the thread that created this file, other threads must use {@link #getYaml()}. */
     protected final Yaml yaml;
     protected final File file;
     protected final String resourcePath;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private volatile boolean streaming = false;
+    /** {@link Yaml} instances of every thread, {@code null} if the {@link YamlPool shared} instances are used. */
+    private final ThreadLocal<Yaml> yamls;
 
     /**
      * Creates a new {@link YamlFile} with the provided {@link ClassLoader loader}, {@code diskPath} {@link File} and
@@ -68,9 +82,31 @@ public class YamlFile extends DataManager implements Reloadable {
      * @since JSky 1.0.0
      */
     public YamlFile(@NotNull ClassLoader loader, @Nullable File diskPath, @NotNull String resourcePath) {
-        super(new DataMap(true));
+        this(loader, diskPath, resourcePath, false);
+    }
+
+    /**
+     * Creates a new {@link YamlFile} with the provided {@link ClassLoader loader}, {@code diskPath} {@link File} and
+     * {@code resourcePath}, optionally using a {@link DataMap#isConcurrent() concurrent} {@link DataMap}, which allows
+     * this {@link YamlFile} to be read from many threads without any external lock. Details about the rest of the
+     * parameters can be found at {@link #YamlFile(ClassLoader, File, String)}.
+     *
+     * @param loader The {@link ClassLoader} that contains the {@link ClassLoader#getResourceAsStream(String) resource}
+     * of this file.
+     * @param diskPath The {@link Nullable} {@link File} that will be combined with the provided {@code resourcePath} to
+     * create the <b>disk path</b> of this {@link YamlFile}.
+     * @param resourcePath The <b>resource path</b>.
+     * @param concurrent Whether to use a {@link DataMap#isConcurrent() concurrent} {@link DataMap} or not.
+     *
+     * @see #YamlFile(ClassLoader, File, String)
+     * @since JSky 1.0.0
+     */
+    public YamlFile(@NotNull ClassLoader loader, @Nullable File diskPath, @NotNull String resourcePath, boolean concurrent) {
+        super(new DataMap(true, concurrent));
         this.loader = Objects.requireNonNull(loader);
-        this.yaml = getNewYaml();
+        // Subclasses may override getNewYaml(), so only plain YamlFiles can use the shared instances.
+        this.yamls = getClass() == YamlFile.class ? null : ThreadLocal.withInitial(this::getNewYaml);
+        this.yaml = getYaml();
         this.file = new File(diskPath, resourcePath);
         this.resourcePath = resourcePath;
     }
@@ -104,9 +140,11 @@ public class YamlFile extends DataManager implements Reloadable {
     /**
      * Method used to generate a new {@link Yaml} instance. This is the instance that is used internally in order to
      * {@link #reload()} and {@link #save()} the file. You may override this method to use your own configuration.
+     * As {@link Yaml} instances aren't thread-safe, this method is called once for every thread that uses this file,
+     * see {@link #getYaml()}.
      * <p>
-     * By default, this method will just create a new {@link Yaml} with the default flow style set to
-     * {@link DumperOptions.FlowStyle#BLOCK}
+     * By default, this method will just create a new {@link Yaml} with the {@link #getDumperOptions() default}
+     * {@link DumperOptions}.
      *
      * @return A new {@link Yaml} instance. Must not be {@code null}, otherwise, trying to use this {@link YamlFile}
      * will throw exceptions.
@@ -115,9 +153,76 @@ public class YamlFile extends DataManager implements Reloadable {
      */
     @NotNull
     protected Yaml getNewYaml() {
-        final DumperOptions dumperOptions = new DumperOptions();
-        dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-        return new Yaml(dumperOptions);
+        return new Yaml(getDumperOptions());
+    }
+
+    /**
+     * Gets the {@link Yaml} instance that the current thread must use to read or write this file, which must not be
+     * shared with other threads. Files of the {@link YamlFile} class itself use the {@link YamlPool#get() shared}
+     * instance of the current thread, while instances of subclasses get one from {@link #getNewYaml()} per thread, as
+     * they may use a different configuration.
+     *
+     * @return The {@link Yaml} instance of the current thread.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    protected Yaml getYaml() {
+        return yamls == null ? YamlPool.get() : yamls.get();
+    }
+
+    /**
+     * Method used to generate the {@link DumperOptions} of this {@link YamlFile}, used by {@link #getNewYaml()} and
+     * by {@link #useStreaming(boolean) streaming} mode to write the file. You may override this method to use your
+     * own configuration.
+     * <p>
+     * By default, this method will just create new {@link DumperOptions} with the default flow style set to
+     * {@link DumperOptions.FlowStyle#BLOCK}
+     *
+     * @return New {@link DumperOptions}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    protected DumperOptions getDumperOptions() {
+        return YamlPool.newDefaultDumperOptions();
+    }
+
+    /**
+     * Enables or disables streaming mode. While enabled, {@link #reload()} builds the contents of the file directly
+     * from the events of the SnakeYAML parser, and {@link #save()} sends events directly to the file writer, so no
+     * node tree of the whole file is created. This reduces the memory used to load and save large files.
+     * <p>
+     * Scalars are read with the same types as on regular mode, and values that aren't maps, lists or basic types are
+     * written by the {@link Yaml} instance of this file. However, streaming mode only reads the first document of the
+     * file and doesn't support collections with explicit tags, such as {@code !!set}.
+     *
+     * @param streaming Whether to use streaming mode or not.
+     *
+     * @return This {@link YamlFile}.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public YamlFile useStreaming(boolean streaming) {
+        this.streaming = streaming;
+        return this;
+    }
+
+    /**
+     * Checks whether this {@link YamlFile} uses {@link #useStreaming(boolean) streaming} mode or not.
+     *
+     * @return {@code true} if this {@link YamlFile} uses streaming mode, {@code false} otherwise.
+     *
+     * @since JSky 1.0.0
+     */
+    public boolean usesStreaming() {
+        return streaming;
+    }
+
+    @Nullable
+    private YamlStreams getStreams() {
+        return streaming ? new YamlStreams(getYaml(), getDumperOptions()) : null;
     }
 
 	/*
@@ -187,50 +292,129 @@ public class YamlFile extends DataManager implements Reloadable {
         });
     }
 
+    /**
+     * {@link #setup(Consumer) Sets up} every {@link YamlFile} of the provided {@link Collection} in parallel, using
+     * up to {@code parallelism} threads that are only alive until every file is set up. Each thread uses its own
+     * {@link #getYaml() Yaml} instances, so files don't need to be concurrent to be loaded this way, but a file must
+     * not be present more than once on {@code files}. This method blocks until every file is set up.
+     *
+     * @param files The {@link YamlFile files} to set up.
+     * @param parallelism The maximum amount of threads to use, must be positive.
+     * @param onException A {@link Consumer} that will accept any exception produced while setting up any file. It
+     * may be called from many threads at the same time.
+     *
+     * @return {@code true} if every file was set up successfully, {@code false} otherwise.
+     *
+     * @throws IllegalArgumentException If {@code parallelism} isn't positive.
+     * @see #setup(Consumer)
+     * @since JSky 1.0.0
+     */
+    public static boolean loadAll(@NotNull Collection<? extends YamlFile> files, int parallelism, @NotNull Consumer<Exception> onException) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be positive, got " + parallelism);
+        if (files.isEmpty())
+            return true;
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, files.size()), task -> {
+            final Thread thread = new Thread(task, "JSky YamlFile loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>(files.size());
+            for (YamlFile file : files)
+                results.add(executor.submit(() -> file.setup(onException)));
+            boolean loaded = true;
+            for (Future<Boolean> result : results)
+                loaded &= getResult(result, onException);
+            return loaded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean getResult(@NotNull Future<Boolean> result, @NotNull Consumer<Exception> onException) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            onException.accept(e);
+        } catch (ExecutionException e) {
+            onException.accept(e.getCause() instanceof Exception cause ? cause : e);
+        }
+        return false;
+    }
+
+    /**
+     * {@link #setup() Sets up} every {@link YamlFile} of the provided {@link Collection} in parallel, using up to one
+     * thread per {@link Runtime#availableProcessors() available processor}. Details can be found at
+     * {@link #loadAll(Collection, int, Consumer)}.
+     *
+     * @param files The {@link YamlFile files} to set up.
+     *
+     * @return {@code true} if every file was set up successfully, {@code false} otherwise.
+     *
+     * @see #loadAll(Collection, int, Consumer)
+     * @since JSky 1.0.0
+     */
+    public static boolean loadAll(@NotNull Collection<? extends YamlFile> files) {
+        return loadAll(files, Runtime.getRuntime().availableProcessors(), e -> {
+        });
+    }
+
     /**
      * Saves the <b>cached</b> contents of this {@link YamlFile} to disk. If the internal {@link DataMap cache} hasn't
-     * been modified, nothing will be done. If the file doesn't {@link #exists() exist}, this method will attempt to
-     * {@link JFiles#create(File) create} it, checking if it was able to do so.
+     * been modified, nothing will be done. The file is written {@link JFiles#writeAtomically(File, boolean,
+     * JFiles.ChannelWriter) atomically}, so a crash while saving never leaves it partially written, and it is created
+     * if it doesn't {@link #exists() exist}.
      * <p>
      * Keep in mind that if you save the file before {@link #reload() loading} it, the result will be an empty file,
      * loosing any contents on it.
      *
      * @param onException A {@link Consumer} that will accept any exception produced by this method.
      *
-     * @return {@code true} if the file was saved successfully. {@code false} otherwise. {@code false} could indicate
-     * that the file doesn't {@link #exists() exist} and couldn't be created or that an {@link IOException} occurred
-     * when trying to write the contents to the existing file.
+     * @return {@code true} if the file was saved successfully. {@code false} if an {@link IOException} occurred when
+     * trying to write the contents to the file.
      *
      * @since JSky 1.0.0
      */
     public boolean save(@NotNull Consumer<Exception> onException) {
         if (!getMap().isModified())
             return true;
-        if (!exists() && !JFiles.create(file, onException))
-            return false;
+        // Cleared before taking the snapshot, so modifications made while saving are saved by the next save.
+        getMap().setModified(false);
         try {
-            final FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8);
-            yaml.dump(getMap().getInternalMap(), writer);
-            writer.close();
-            getMap().setModified(false);
+            final YamlStreams streams = getStreams();
+            JFiles.writeAtomically(file, syncsWrites(), channel -> {
+                final Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+                if (streams != null)
+                    streams.write(getMap().getSnapshot(), writer);
+                else
+                    getYaml().dump(getMap().getSnapshot(), writer);
+                writer.flush();
+            });
+            markSaved(file);
             return true;
         } catch (IOException ex) {
+            getMap().setModified(true);
             onException.accept(ex);
             return false;
+        } catch (RuntimeException ex) {
+            getMap().setModified(true);
+            throw ex;
         }
     }
 
     /**
      * Saves the <b>cached</b> contents of this {@link YamlFile} to disk. If the internal {@link DataMap cache} hasn't
-     * been modified, nothing will be done. If the file doesn't {@link #exists() exist}, this method will attempt to
-     * {@link JFiles#create(File) create} it, checking if it was able to do so.
+     * been modified, nothing will be done. The file is written {@link JFiles#writeAtomically(File, boolean,
+     * JFiles.ChannelWriter) atomically}, so a crash while saving never leaves it partially written, and it is created
+     * if it doesn't {@link #exists() exist}.
      * <p>
      * Keep in mind that if you save the file before {@link #reload() loading} it, the result will be an empty file,
      * loosing any contents on it.
      *
-     * @return {@code true} if the file was saved successfully. {@code false} otherwise. {@code false} could indicate
-     * that the file doesn't {@link #exists() exist} and couldn't be created or that an {@link IOException} occurred
-     * when trying to write the contents to the existing file.
+     * @return {@code true} if the file was saved successfully. {@code false} if an {@link IOException} occurred when
+     * trying to write the contents to the file.
      *
      * @since JSky 1.0.0
      */
@@ -254,11 +438,13 @@ public class YamlFile extends DataManager implements Reloadable {
      * @since JSky 1.0.0
      */
     public boolean reload(@NotNull Consumer<Exception> onException) {
+        final YamlStreams streams = getStreams();
         try (FileInputStream stream = new FileInputStream(this.file)) {
-            getMap().clear();
-            final HashMap<String, Object> loadedMap = this.yaml.load(stream);
-            if (loadedMap != null) // May be null on empty files
-                getMap().getInternalMap().putAll(loadedMap);
+            final Map<String, Object> loadedMap = streams != null
+                    ? streams.read(new UnicodeReader(stream))
+                    : getYaml().load(stream);
+            // May be null on empty files. Contents are replaced at once so concurrent readers never see a partial load.
+            getMap().setContents(loadedMap == null ? Map.of() : loadedMap);
             return true;
         } catch (IOException | SecurityException ex) {
             onException.accept(ex);
@@ -302,12 +488,12 @@ public class YamlFile extends DataManager implements Reloadable {
     /**
      * Updates this {@link YamlFile}, comparing its <b>cached</b> contents to those on the
      * {@link #getUpdatedStream() updated} {@link InputStream}. This method relies on
-     * {@link DataMap#update(HashMap, List)}. Details are provided there.
+     * {@link DataMap#updateTree(Map, List)}. Details are provided there.
      * <p>
-     * The file will only be {@link #save() saved} if necessary.
+     * The file will only be {@link #save() saved} if any key was added or removed.
      *
      * @param ignored The list of paths to ignore. Ignored paths won't be affected and will remain unchanged. See
-     * {@link DataMap#update(HashMap, List)} for details.
+     * {@link DataMap#updateTree(Map, List)} for details.
      * @param onException A {@link Consumer} that will accept any exception produced by this method.
      *
      * @return {@code true} if the update was successful, {@code false} if {@link #getUpdatedStream()} returns
@@ -316,14 +502,15 @@ public class YamlFile extends DataManager implements Reloadable {
      * @since JSky 1.0.0
      */
     public boolean update(@Nullable List<String> ignored, @NotNull Consumer<Exception> onException) {
-        final InputStream updated = getUpdatedStream();
-        if (updated == null)
-            return false;
-        final HashMap<String, Object> updatedMap = getNewYaml().load(updated);
-        if (getMap().update(updatedMap, ignored))
-            save();
-        try {
-            updated.close();
+        final YamlStreams streams = getStreams();
+        try (final InputStream updated = getUpdatedStream()) {
+            if (updated == null)
+                return false;
+            final Map<String, Object> updatedMap = streams != null
+                    ? streams.read(new UnicodeReader(updated))
+                    : getYaml().load(updated);
+            if (updatedMap != null && !getMap().updateTree(updatedMap, ignored).isEmpty())
+                save();
             return true;
         } catch (IOException ex) {
             onException.accept(ex);
@@ -334,12 +521,12 @@ public class YamlFile extends DataManager implements Reloadable {
     /**
      * Updates this {@link YamlFile}, comparing its <b>cached</b> contents to those on the
      * {@link #getUpdatedStream() updated} {@link InputStream}. This method relies on
-     * {@link DataMap#update(HashMap, List)}. Details are provided there.
+     * {@link DataMap#updateTree(Map, List)}. Details are provided there.
      * <p>
-     * The file will only be {@link #save() saved} if necessary.
+     * The file will only be {@link #save() saved} if any key was added or removed.
      *
      * @param ignored The list of paths to ignore. Ignored paths won't be affected and will remain unchanged. See
-     * {@link DataMap#update(HashMap, List)} for details.
+     * {@link DataMap#updateTree(Map, List)} for details.
      *
      * @return {@code true} if the update was successful, {@code false} if {@link #getUpdatedStream()} returns
      * {@code null} or any exceptions occur during the process.
@@ -354,9 +541,9 @@ public class YamlFile extends DataManager implements Reloadable {
     /**
      * Updates this {@link YamlFile}, comparing its <b>cached</b> contents to those on the
      * {@link #getUpdatedStream() updated} {@link InputStream}. This method relies on
-     * {@link DataMap#update(HashMap, List)}. Details are provided there.
+     * {@link DataMap#updateTree(Map, List)}. Details are provided there.
      * <p>
-     * The file will only be {@link #save() saved} if necessary.
+     * The file will only be {@link #save() saved} if any key was added or removed.
      *
      * @param onException A {@link Consumer} that will accept any exception produced by this method.
      *
@@ -372,9 +559,9 @@ public class YamlFile extends DataManager implements Reloadable {
     /**
      * Updates this {@link YamlFile}, comparing its <b>cached</b> contents to those on the
      * {@link #getUpdatedStream() updated} {@link InputStream}. This method relies on
-     * {@link DataMap#update(HashMap, List)}. Details are provided there.
+     * {@link DataMap#updateTree(Map, List)}. Details are provided there.
      * <p>
-     * The file will only be {@link #save() saved} if necessary.
+     * The file will only be {@link #save() saved} if any key was added or removed.
      *
      * @return {@code true} if the update was successful, {@code false} if {@link #getUpdatedStream()} returns
      * {@code null} or any exceptions occur during the process.
@@ -398,12 +585,12 @@ public class YamlFile extends DataManager implements Reloadable {
         other = (YamlFile) obj;
         return other.resourcePath.equals(this.resourcePath)
                 && other.file.equals(this.file) && other.loader.equals(this.loader)
-                && other.yaml.equals(this.yaml) && other.getMap().equals(this.getMap());
+                && other.getMap().equals(this.getMap());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(resourcePath, file, loader, yaml, getMap());
+        return Objects.hash(resourcePath, file, loader, getMap());
     }
 
     @Override
@@ -0,0 +1,50 @@
+package net.codersky.jsky.yaml;
+
+import org.jetbrains.annotations.NotNull;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Provides shared {@link Yaml} instances with the default configuration used by {@link YamlFile}. {@link Yaml}
+ * instances aren't thread-safe, so every thread gets its own instance, which is then reused by every
+ * {@link YamlFile} that uses the default configuration on that thread, instead of creating one per file.
+ *
+ * @author xDec0de_
+ * @since JSky 1.0.0
+ */
+public final class YamlPool {
+
+    private static final ThreadLocal<Yaml> DEFAULT = ThreadLocal.withInitial(() -> new Yaml(newDefaultDumperOptions()));
+
+    private YamlPool() {
+    }
+
+    /**
+     * Gets the {@link Yaml} instance of the current thread, which uses the
+     * {@link #newDefaultDumperOptions() default} {@link DumperOptions}. The instance must not be shared with other
+     * threads.
+     *
+     * @return The {@link Yaml} instance of the current thread.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public static Yaml get() {
+        return DEFAULT.get();
+    }
+
+    /**
+     * Creates new {@link DumperOptions} with the default configuration used by {@link YamlFile}, that is, with the
+     * default flow style set to {@link DumperOptions.FlowStyle#BLOCK}.
+     *
+     * @return New {@link DumperOptions} with the default configuration.
+     *
+     * @since JSky 1.0.0
+     */
+    @NotNull
+    public static DumperOptions newDefaultDumperOptions() {
+        final DumperOptions dumperOptions = new DumperOptions();
+        dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        return dumperOptions;
+    }
+}
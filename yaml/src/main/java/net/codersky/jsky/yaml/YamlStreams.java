@@ -0,0 +1,279 @@
+package net.codersky.jsky.yaml;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ImplicitTuple;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Reads and writes yaml through the event API of SnakeYAML, used by {@link YamlFile} on
+ * {@link YamlFile#useStreaming(boolean) streaming} mode. Unlike {@link Yaml#load(Reader)} and
+ * {@link Yaml#dump(Object, Writer)}, no node tree is created for the whole document: values are built directly from
+ * parser events when reading, and events are sent directly to the writer when writing.
+ *
+ * @author xDec0de_
+ * @since JSky 1.0.0
+ */
+final class YamlStreams {
+
+    /** Same pattern used by SnakeYAML to write multiline strings with the literal style. */
+    private static final Pattern MULTILINE = Pattern.compile("\n|\u0085|\u2028|\u2029");
+
+    private final Yaml yaml;
+    private final DumperOptions options;
+    private final Resolver resolver = new Resolver();
+    private final ScalarConstructor constructor = new ScalarConstructor();
+
+    YamlStreams(@NotNull Yaml yaml, @NotNull DumperOptions options) {
+        this.yaml = yaml;
+        this.options = options;
+    }
+
+	/*
+	 - Reading
+	 */
+
+    /**
+     * Reads the first document of the provided {@code reader}, which must be a mapping.
+     *
+     * @return The contents of the document, empty if {@code reader} has no document.
+     *
+     * @throws YAMLException If the yaml is invalid, its root isn't a mapping or it contains tagged collections.
+     */
+    @NotNull
+    Map<String, Object> read(@NotNull Reader reader) {
+        final Iterator<Event> events = yaml.parse(reader).iterator();
+        final Map<String, Object> anchors = new HashMap<>();
+        while (events.hasNext()) {
+            final Event event = events.next();
+            if (event instanceof StreamEndEvent)
+                break;
+            if (!(event instanceof DocumentStartEvent))
+                continue;
+            final Event root = events.next();
+            if (!(root instanceof MappingStartEvent start))
+                throw new YAMLException("The root of a YamlFile must be a mapping, found " + root);
+            @SuppressWarnings("unchecked")
+            final Map<String, Object> contents = (Map<String, Object>) (Map<?, ?>) readMapping(start, events, anchors);
+            return contents;
+        }
+        return new LinkedHashMap<>();
+    }
+
+    @Nullable
+    private Object readValue(@NotNull Event event, @NotNull Iterator<Event> events, @NotNull Map<String, Object> anchors) {
+        return switch (event) {
+            case ScalarEvent scalar -> anchor(scalar, readScalar(scalar), anchors);
+            case MappingStartEvent start -> readMapping(start, events, anchors);
+            case SequenceStartEvent start -> readSequence(start, events, anchors);
+            case AliasEvent alias -> {
+                if (!anchors.containsKey(alias.getAnchor()))
+                    throw new YAMLException("Found undefined alias " + alias.getAnchor());
+                yield anchors.get(alias.getAnchor());
+            }
+            default -> throw new YAMLException("Unexpected event " + event);
+        };
+    }
+
+    @Nullable
+    private Object anchor(@NotNull NodeEvent event, @Nullable Object value, @NotNull Map<String, Object> anchors) {
+        if (event.getAnchor() != null)
+            anchors.put(event.getAnchor(), value);
+        return value;
+    }
+
+    // Scalars are constructed just like SnakeYAML does, so they get the same types.
+    @Nullable
+    private Object readScalar(@NotNull ScalarEvent scalar) {
+        final String tag = scalar.getTag();
+        final ScalarNode node;
+        if (tag == null || tag.equals("!")) {
+            final Tag resolved = resolver.resolve(NodeId.scalar, scalar.getValue(), scalar.getImplicit().canOmitTagInPlainScalar());
+            node = new ScalarNode(resolved, true, scalar.getValue(), scalar.getStartMark(), scalar.getEndMark(), scalar.getScalarStyle());
+        } else
+            node = new ScalarNode(new Tag(tag), false, scalar.getValue(), scalar.getStartMark(), scalar.getEndMark(), scalar.getScalarStyle());
+        return constructor.construct(node);
+    }
+
+    private void checkTag(@NotNull CollectionStartEvent start, @NotNull Tag expected) {
+        final String tag = start.getTag();
+        if (tag != null && !tag.equals("!") && !tag.equals(expected.getValue()))
+            throw new YAMLException("Tagged collections (" + tag + ") aren't supported on streaming mode");
+    }
+
+    @NotNull
+    private Map<Object, Object> readMapping(@NotNull MappingStartEvent start, @NotNull Iterator<Event> events, @NotNull Map<String, Object> anchors) {
+        checkTag(start, Tag.MAP);
+        final Map<Object, Object> map = new LinkedHashMap<>();
+        anchor(start, map, anchors);
+        Event event;
+        while (!((event = events.next()) instanceof MappingEndEvent)) {
+            final boolean merge = event instanceof ScalarEvent scalar && scalar.isPlain() && scalar.getValue().equals("<<");
+            final Object key = merge ? null : readValue(event, events, anchors);
+            final Object value = readValue(events.next(), events, anchors);
+            if (merge)
+                merge(map, value);
+            else
+                map.put(key, value);
+        }
+        return map;
+    }
+
+    // Merge keys only add the keys that the mapping doesn't have, explicit keys always take priority.
+    private void merge(@NotNull Map<Object, Object> target, @Nullable Object merged) {
+        if (merged instanceof Map<?, ?> map) {
+            map.forEach(target::putIfAbsent);
+        } else if (merged instanceof List<?> lst) {
+            for (Object element : lst)
+                merge(target, element);
+        } else
+            throw new YAMLException("Merge keys only accept mappings or sequences of mappings");
+    }
+
+    @NotNull
+    private List<Object> readSequence(@NotNull SequenceStartEvent start, @NotNull Iterator<Event> events, @NotNull Map<String, Object> anchors) {
+        checkTag(start, Tag.SEQ);
+        final List<Object> lst = new ArrayList<>();
+        anchor(start, lst, anchors);
+        Event event;
+        while (!((event = events.next()) instanceof SequenceEndEvent))
+            lst.add(readValue(event, events, anchors));
+        return lst;
+    }
+
+    private static final class ScalarConstructor extends Constructor {
+
+        private ScalarConstructor() {
+            super(new LoaderOptions());
+        }
+
+        @Nullable
+        private Object construct(@NotNull ScalarNode node) {
+            return constructObject(node);
+        }
+    }
+
+	/*
+	 - Writing
+	 */
+
+    /**
+     * Writes the provided {@code contents} to the provided {@code writer} as a single yaml document. Values that
+     * aren't maps, lists or basic types are {@link Yaml#represent(Object) represented} by the {@link Yaml} instance.
+     */
+    void write(@NotNull Map<String, Object> contents, @NotNull Writer writer) throws IOException {
+        final Emitter emitter = new Emitter(writer, options);
+        emitter.emit(new StreamStartEvent(null, null));
+        emitter.emit(new DocumentStartEvent(null, null, options.isExplicitStart(), options.getVersion(), options.getTags()));
+        writeValue(emitter, contents);
+        emitter.emit(new DocumentEndEvent(null, null, options.isExplicitEnd()));
+        emitter.emit(new StreamEndEvent(null, null));
+    }
+
+    private void writeValue(@NotNull Emitter emitter, @Nullable Object value) throws IOException {
+        switch (value) {
+            case null -> writeScalar(emitter, Tag.NULL, "null", DumperOptions.ScalarStyle.PLAIN);
+            case String str -> writeString(emitter, str);
+            case Character ch -> writeString(emitter, ch.toString());
+            case Boolean bool -> writeScalar(emitter, Tag.BOOL, bool.toString(), DumperOptions.ScalarStyle.PLAIN);
+            case Byte n -> writeScalar(emitter, Tag.INT, n.toString(), DumperOptions.ScalarStyle.PLAIN);
+            case Short n -> writeScalar(emitter, Tag.INT, n.toString(), DumperOptions.ScalarStyle.PLAIN);
+            case Integer n -> writeScalar(emitter, Tag.INT, n.toString(), DumperOptions.ScalarStyle.PLAIN);
+            case Long n -> writeScalar(emitter, Tag.INT, n.toString(), DumperOptions.ScalarStyle.PLAIN);
+            case BigInteger n -> writeScalar(emitter, Tag.INT, n.toString(), DumperOptions.ScalarStyle.PLAIN);
+            case Float n -> writeScalar(emitter, Tag.FLOAT, toYaml(n.doubleValue(), n.toString()), DumperOptions.ScalarStyle.PLAIN);
+            case Double n -> writeScalar(emitter, Tag.FLOAT, toYaml(n, n.toString()), DumperOptions.ScalarStyle.PLAIN);
+            case Map<?, ?> map -> {
+                emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, getFlowStyle(map.values())));
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(emitter, entry.getKey());
+                    writeValue(emitter, entry.getValue());
+                }
+                emitter.emit(new MappingEndEvent(null, null));
+            }
+            case List<?> lst -> {
+                emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null, getFlowStyle(lst)));
+                for (Object element : lst)
+                    writeValue(emitter, element);
+                emitter.emit(new SequenceEndEvent(null, null));
+            }
+            default -> {
+                // Any other type is represented by SnakeYAML itself, only this value gets a node tree.
+                for (Event event : yaml.serialize(yaml.represent(value)))
+                    if (!(event instanceof StreamStartEvent || event instanceof StreamEndEvent
+                            || event instanceof DocumentStartEvent || event instanceof DocumentEndEvent))
+                        emitter.emit(event);
+            }
+        }
+    }
+
+    @NotNull
+    private String toYaml(double n, @NotNull String str) {
+        if (Double.isNaN(n))
+            return ".NaN";
+        if (Double.isInfinite(n))
+            return n > 0 ? ".inf" : "-.inf";
+        return str;
+    }
+
+    private void writeString(@NotNull Emitter emitter, @NotNull String str) throws IOException {
+        DumperOptions.ScalarStyle style = options.getDefaultScalarStyle();
+        if (style == DumperOptions.ScalarStyle.PLAIN && MULTILINE.matcher(str).find())
+            style = DumperOptions.ScalarStyle.LITERAL;
+        writeScalar(emitter, Tag.STR, str, style);
+    }
+
+    // Strings that would be read as other types, like "true" or "42", get quoted by the emitter.
+    private void writeScalar(@NotNull Emitter emitter, @NotNull Tag tag, @NotNull String value, @NotNull DumperOptions.ScalarStyle style) throws IOException {
+        final ImplicitTuple implicit = new ImplicitTuple(
+                tag.equals(resolver.resolve(NodeId.scalar, value, true)),
+                tag.equals(resolver.resolve(NodeId.scalar, value, false)));
+        emitter.emit(new ScalarEvent(null, tag.getValue(), implicit, value, null, null, style));
+    }
+
+    // Same as SnakeYAML, on AUTO, collections that only contain scalars use the flow style.
+    @NotNull
+    private DumperOptions.FlowStyle getFlowStyle(@NotNull Iterable<?> values) {
+        final DumperOptions.FlowStyle style = options.getDefaultFlowStyle();
+        if (style != DumperOptions.FlowStyle.AUTO)
+            return style;
+        for (Object value : values)
+            if (value instanceof Map<?, ?> || value instanceof Iterable<?> || value instanceof Object[])
+                return DumperOptions.FlowStyle.BLOCK;
+        return DumperOptions.FlowStyle.FLOW;
+    }
+}
@@ -6,6 +6,11 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -26,6 +31,48 @@ public class TestYamlFile {
         assertEquals(42, testFile.getInt("int"));
     }
 
+    @Test
+    public void testStreaming() throws IOException {
+        final YamlFile streamed = new YamlFile(JTestUtils.TMP_FOLDER, "streamed.yml").useStreaming(true);
+        streamed.setString("str", "true");
+        streamed.setString("multiline", "first\nsecond");
+        streamed.setInt("nested.int", 42);
+        streamed.setDouble("nested.double", 1.5);
+        streamed.setBooleans("bools", List.of(true, false));
+        assertTrue(streamed.save());
+
+        // Both modes must read exactly the same values.
+        final YamlFile regular = new YamlFile(JTestUtils.TMP_FOLDER, "streamed.yml");
+        assertTrue(regular.reload());
+        assertTrue(streamed.reload());
+        for (YamlFile file : List.of(regular, streamed)) {
+            assertEquals("true", file.getString("str"));
+            assertEquals("first\nsecond", file.getString("multiline"));
+            assertEquals(42, file.getInt("nested.int"));
+            assertEquals(1.5, file.getDouble("nested.double"));
+            assertEquals(List.of(true, false), file.getBooleans("bools"));
+        }
+
+        Files.writeString(streamed.asFile().toPath(), "base: &base\n  a: 1\n  b: 2\nchild:\n  <<: *base\n  b: 3\n");
+        assertTrue(streamed.reload());
+        assertEquals(1, streamed.getInt("child.a"));
+        assertEquals(3, streamed.getInt("child.b"));
+    }
+
+    @Test
+    public void testLoadAll() {
+        final List<YamlFile> files = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            final YamlFile file = new YamlFile(JTestUtils.TMP_FOLDER, "file" + i + ".yml");
+            file.setInt("index", i);
+            assertTrue(file.save());
+            files.add(new YamlFile(JTestUtils.TMP_FOLDER, "file" + i + ".yml"));
+        }
+        assertTrue(YamlFile.loadAll(files));
+        for (int i = 0; i < files.size(); i++)
+            assertEquals(i, files.get(i).getInt("index"));
+    }
+
 	/*
 	 - Before & after test actions
 	 */